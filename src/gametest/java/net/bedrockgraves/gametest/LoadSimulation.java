@@ -0,0 +1,333 @@
+package net.bedrockgraves.gametest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import eu.pb4.graves.other.GraveUtils;
+import net.bedrockgraves.BedrockGravesAddon;
+import net.bedrockgraves.config.GeyserConfig;
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.bedrockgraves.overlay.BedrockOverlayManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import org.geysermc.floodgate.api.FloodgateApi;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Graves and simulated players around a game test, with tick time and per-player traffic recorded
+ * over a measurement window that starts after a warm-up.
+ *
+ * Sizes come from system properties so the same test can be run at different scales:
+ * <pre>
+ * -Dbedrockgraves.loadtest.graves=200
+ * -Dbedrockgraves.loadtest.javaPlayers=10
+ * -Dbedrockgraves.loadtest.bedrockPlayers=10
+ * -Dbedrockgraves.loadtest.spread=96          side of the square area in blocks
+ * -Dbedrockgraves.loadtest.warmupTicks=200
+ * -Dbedrockgraves.loadtest.ticks=1200         measured ticks
+ * -Dbedrockgraves.loadtest.report=loadtest-report.json
+ * -Dbedrockgraves.loadtest.maxMspt=0          fail when the 95th percentile exceeds this, 0 = never
+ * </pre>
+ *
+ * Only touched from the server thread.
+ */
+final class LoadSimulation {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String PREFIX = "bedrockgraves.loadtest.";
+    private static final int GRAVE_OWNERS = 8;  // Graves are spread over a few owners, like real deaths
+
+    private static LoadSimulation active;
+
+    static {
+        ServerTickEvents.START_SERVER_TICK.register(server -> {
+            if (active != null) {
+                active.startTick();
+            }
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (active != null) {
+                active.endTick();
+            }
+        });
+    }
+
+    private final Settings settings;
+    private final ServerWorld world;
+    private final double centerX;
+    private final double centerZ;
+    private final double groundY;
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+    private final List<long[]> forcedChunks = new ArrayList<>();
+    private final PacketSizer sizer;
+    private final long[] tickNanos;
+    private final long gravesBefore;
+
+    private long tick;
+    private long tickStart;
+    private int measured;
+    private int gravesCreated;
+
+    private LoadSimulation(ServerWorld world, BlockPos origin, Settings settings) {
+        this.world = world;
+        this.settings = settings;
+        this.centerX = origin.getX() + 0.5;
+        this.centerZ = origin.getZ() + 0.5;
+        this.groundY = world.getTopY(Heightmap.Type.MOTION_BLOCKING, origin.getX(), origin.getZ());
+        this.sizer = new PacketSizer(world.getServer());
+        this.tickNanos = new long[settings.ticks()];
+        this.gravesBefore = GeyserMetrics.GRAVE_CREATED.sum();
+    }
+
+    static LoadSimulation start(ServerWorld world, BlockPos origin, Settings settings) {
+        if (active != null) {
+            throw new IllegalStateException("A load simulation is already running");
+        }
+        LoadSimulation simulation = new LoadSimulation(world, origin, settings);
+        simulation.forceArea();
+        simulation.placeGraves();
+        simulation.connectViewers();
+        active = simulation;
+        return simulation;
+    }
+
+    int totalTicks() {
+        return this.settings.warmupTicks() + this.settings.ticks();
+    }
+
+    /**
+     * Ends the simulation, disconnects its players and writes the report.
+     */
+    Report finish() throws IOException {
+        active = null;
+        Report report = this.report();
+        for (SimulatedPlayer simulated : this.players) {
+            simulated.disconnect();
+            FloodgateApi.getInstance().removePlayer(simulated.player.getUuid());
+        }
+        for (long[] chunk : this.forcedChunks) {
+            this.world.setChunkForced((int) chunk[0], (int) chunk[1], false);
+        }
+
+        Path path = Path.of(this.settings.reportPath()).toAbsolutePath();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            GSON.toJson(report.json(), writer);
+        }
+        BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Load simulation: mspt p95 {} ms, report written to {}",
+                String.format("%.2f", report.msptP95()), path);
+        return report;
+    }
+
+    private void forceArea() {
+        int half = (int) Math.ceil(this.settings.spread() / 2) + 16;
+        int minX = ChunkSectionPos.getSectionCoord(this.centerX - half);
+        int maxX = ChunkSectionPos.getSectionCoord(this.centerX + half);
+        int minZ = ChunkSectionPos.getSectionCoord(this.centerZ - half);
+        int maxZ = ChunkSectionPos.getSectionCoord(this.centerZ + half);
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (this.world.setChunkForced(x, z, true)) {
+                    this.forcedChunks.add(new long[]{x, z});
+                }
+                this.world.getChunk(x, z);
+            }
+        }
+    }
+
+    /**
+     * Creates the graves on a grid through Universal Graves itself, so they are indexed and
+     * rendered exactly like graves of real deaths.
+     */
+    private void placeGraves() {
+        int count = this.settings.graves();
+        if (count == 0) {
+            return;
+        }
+        int perRow = (int) Math.ceil(Math.sqrt(count));
+        double step = Math.max(2, this.settings.spread() / perRow);
+        double start = -step * (perRow - 1) / 2;
+
+        List<SimulatedPlayer> owners = new ArrayList<>();
+        for (int i = 0; i < Math.min(GRAVE_OWNERS, count); i++) {
+            owners.add(SimulatedPlayer.connect(this.world, "sim-owner-" + i, false, SimulatedPlayer.Path.LOOK_AROUND, i, 0));
+        }
+        for (int i = 0; i < count; i++) {
+            SimulatedPlayer owner = owners.get(i % owners.size());
+            double x = this.centerX + start + (i % perRow) * step;
+            double z = this.centerZ + start + (i / perRow) * step;
+            owner.player.refreshPositionAndAngles(x, this.groundY, z, 0.0F, 0.0F);
+            owner.player.getInventory().insertStack(new ItemStack(Items.COBBLESTONE, 1 + i % 64));
+            owner.player.getInventory().insertStack(new ItemStack(Items.IRON_INGOT, 1 + i % 16));
+            GraveUtils.createGrave(owner.player, this.world.getDamageSources().generic());
+        }
+        for (SimulatedPlayer owner : owners) {
+            owner.drain(this.sizer, false);
+            owner.disconnect();
+        }
+        this.gravesCreated = (int) (GeyserMetrics.GRAVE_CREATED.sum() - this.gravesBefore);
+    }
+
+    private void connectViewers() {
+        SimulatedPlayer.Path[] paths = SimulatedPlayer.Path.values();
+        int javaLeft = this.settings.javaPlayers();
+        int bedrockLeft = this.settings.bedrockPlayers();
+        int total = javaLeft + bedrockLeft;
+        for (int i = 0; i < total; i++) {
+            // Alternate editions so both see the same mix of paths
+            boolean bedrock = bedrockLeft > 0 && (i % 2 == 0 || javaLeft == 0);
+            if (bedrock) {
+                bedrockLeft--;
+            } else {
+                javaLeft--;
+            }
+            String name = (bedrock ? "sim-bedrock-" : "sim-java-") + i;
+            SimulatedPlayer.Path path = paths[i % paths.length];
+            if (bedrock) {
+                // Known before joining, the status is settled on the first packet sent
+                FloodgateApi.getInstance().addPlayer(SimulatedPlayer.uuidFor(name));
+            }
+            this.players.add(SimulatedPlayer.connect(this.world, name, bedrock, path, i, (double) i / total));
+        }
+    }
+
+    private boolean measuring() {
+        return this.tick >= this.settings.warmupTicks() && this.measured < this.settings.ticks();
+    }
+
+    private void startTick() {
+        this.tickStart = System.nanoTime();
+        for (SimulatedPlayer simulated : this.players) {
+            simulated.tick(this.tick, this.centerX, this.centerZ, this.groundY, this.settings.spread());
+        }
+    }
+
+    private void endTick() {
+        long elapsed = System.nanoTime() - this.tickStart;
+        // The tick the simulation started in was not timed from its start
+        boolean measuring = this.tickStart != 0 && this.measuring();
+        if (measuring) {
+            this.tickNanos[this.measured++] = elapsed;
+        }
+        // Sizing happens after the tick is timed, it is not work a real server would do
+        for (SimulatedPlayer simulated : this.players) {
+            simulated.drain(this.sizer, measuring);
+        }
+        this.tick++;
+    }
+
+    private Report report() {
+        long[] sorted = Arrays.copyOf(this.tickNanos, this.measured);
+        Arrays.sort(sorted);
+
+        JsonObject json = new JsonObject();
+        JsonObject config = new JsonObject();
+        config.addProperty("graves", this.settings.graves());
+        config.addProperty("javaPlayers", this.settings.javaPlayers());
+        config.addProperty("bedrockPlayers", this.settings.bedrockPlayers());
+        config.addProperty("spread", this.settings.spread());
+        config.addProperty("warmupTicks", this.settings.warmupTicks());
+        config.addProperty("ticks", this.settings.ticks());
+        config.addProperty("profile", GeyserConfig.profile());
+        json.add("config", config);
+        json.addProperty("gravesCreated", this.gravesCreated);
+        json.addProperty("overlays", BedrockOverlayManager.overlayCount());
+
+        double p95 = percentileMs(sorted, 0.95);
+        JsonObject mspt = new JsonObject();
+        mspt.addProperty("mean", sorted.length > 0 ? Arrays.stream(sorted).average().orElse(0) / 1e6 : 0);
+        mspt.addProperty("p50", percentileMs(sorted, 0.50));
+        mspt.addProperty("p95", p95);
+        mspt.addProperty("p99", percentileMs(sorted, 0.99));
+        mspt.addProperty("max", sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0);
+        json.add("mspt", mspt);
+
+        json.add("java", this.editionSummary(false));
+        json.add("bedrock", this.editionSummary(true));
+
+        JsonArray perPlayer = new JsonArray();
+        for (SimulatedPlayer simulated : this.players) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("name", simulated.player.getName().getString());
+            entry.addProperty("bedrock", simulated.bedrock);
+            entry.addProperty("path", simulated.path.name());
+            entry.addProperty("packets", simulated.packets);
+            entry.addProperty("bytes", simulated.bytes);
+            perPlayer.add(entry);
+        }
+        json.add("players", perPlayer);
+        json.addProperty("unsizedPackets", this.sizer.failures());
+        json.addProperty("metrics", GeyserMetrics.summaryLine());
+        return new Report(json, p95);
+    }
+
+    private JsonObject editionSummary(boolean bedrock) {
+        int count = 0;
+        long packets = 0;
+        long bytes = 0;
+        for (SimulatedPlayer simulated : this.players) {
+            if (simulated.bedrock == bedrock) {
+                count++;
+                packets += simulated.packets;
+                bytes += simulated.bytes;
+            }
+        }
+        JsonObject summary = new JsonObject();
+        summary.addProperty("players", count);
+        summary.addProperty("packetsPerPlayer", count > 0 ? (double) packets / count : 0);
+        summary.addProperty("bytesPerPlayer", count > 0 ? (double) bytes / count : 0);
+        summary.addProperty("packetsPerPlayerPerTick", count > 0 && this.measured > 0 ? (double) packets / count / this.measured : 0);
+        summary.addProperty("bytesPerPlayerPerSecond", count > 0 && this.measured > 0 ? (double) bytes / count / this.measured * 20 : 0);
+        return summary;
+    }
+
+    private static double percentileMs(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    record Report(JsonObject json, double msptP95) {
+    }
+
+    record Settings(int graves, int javaPlayers, int bedrockPlayers, double spread,
+                    int warmupTicks, int ticks, String reportPath, double maxMspt) {
+
+        static Settings fromSystemProperties() {
+            Settings settings = new Settings(
+                    Integer.getInteger(PREFIX + "graves", 200),
+                    Integer.getInteger(PREFIX + "javaPlayers", 10),
+                    Integer.getInteger(PREFIX + "bedrockPlayers", 10),
+                    Double.parseDouble(System.getProperty(PREFIX + "spread", "96")),
+                    Integer.getInteger(PREFIX + "warmupTicks", 200),
+                    Integer.getInteger(PREFIX + "ticks", 1200),
+                    System.getProperty(PREFIX + "report", "loadtest-report.json"),
+                    Double.parseDouble(System.getProperty(PREFIX + "maxMspt", "0")));
+            if (settings.graves() < 0 || settings.javaPlayers() < 0 || settings.bedrockPlayers() < 0
+                    || settings.warmupTicks() < 0 || settings.ticks() < 1 || settings.spread() < 16) {
+                throw new IllegalArgumentException("Invalid load simulation settings: " + settings);
+            }
+            if (settings.warmupTicks() + settings.ticks() > LoadSimulationTest.MAX_TICKS - 20) {
+                throw new IllegalArgumentException("warmupTicks + ticks must stay below " + (LoadSimulationTest.MAX_TICKS - 20));
+            }
+            return settings;
+        }
+    }
+}
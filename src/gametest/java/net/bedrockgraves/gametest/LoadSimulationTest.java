@@ -0,0 +1,36 @@
+package net.bedrockgraves.gametest;
+
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Overlay engine under load: graves and Java/Bedrock players as configured in {@link LoadSimulation},
+ * with an optional gate on the 95th percentile tick time.
+ */
+public class LoadSimulationTest {
+    static final int MAX_TICKS = 20 * 60 * 30; // Longest simulation including warm-up
+
+    @GameTest(maxTicks = MAX_TICKS)
+    public void overlayLoad(TestContext context) {
+        LoadSimulation.Settings settings = LoadSimulation.Settings.fromSystemProperties();
+        LoadSimulation simulation = LoadSimulation.start(context.getWorld(), context.getAbsolutePos(BlockPos.ORIGIN), settings);
+
+        context.waitAndRun(simulation.totalTicks(), () -> {
+            LoadSimulation.Report report;
+            try {
+                report = simulation.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the load simulation report", e);
+            }
+            if (settings.maxMspt() > 0 && report.msptP95() > settings.maxMspt()) {
+                throw new AssertionError(String.format("Tick time p95 %.2f ms exceeds the limit of %.2f ms",
+                        report.msptP95(), settings.maxMspt()));
+            }
+            context.complete();
+        });
+    }
+}
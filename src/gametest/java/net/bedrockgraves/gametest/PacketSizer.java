@@ -0,0 +1,46 @@
+package net.bedrockgraves.gametest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.NetworkState;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.encoding.VarInts;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.state.PlayStateFactories;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Wire size of play packets as the server would frame them, before compression.
+ */
+final class PacketSizer {
+    static final int BUNDLE_DELIMITER_BYTES = 2;    // Length prefix and packet id, no body
+
+    private final NetworkState<ClientPlayPacketListener> state;
+    private final ByteBuf buffer = Unpooled.buffer(1024);
+    private long failures;
+
+    PacketSizer(MinecraftServer server) {
+        this.state = PlayStateFactories.S2C.bind(RegistryByteBuf.makeFactory(server.getRegistryManager()));
+    }
+
+    @SuppressWarnings("unchecked")
+    int size(Packet<?> packet) {
+        this.buffer.clear();
+        try {
+            this.state.codec().encode(this.buffer, (Packet<? super ClientPlayPacketListener>) packet);
+        } catch (RuntimeException e) {
+            this.failures++;
+            return 0;
+        }
+        int length = this.buffer.readableBytes();
+        return VarInts.getSizeInBytes(length) + length;
+    }
+
+    /**
+     * Packets that could not be encoded outside a real connection and were counted as zero bytes.
+     */
+    long failures() {
+        return this.failures;
+    }
+}
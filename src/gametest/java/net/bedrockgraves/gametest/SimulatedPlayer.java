@@ -0,0 +1,160 @@
+package net.bedrockgraves.gametest;
+
+import com.mojang.authlib.GameProfile;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.DisconnectionInfo;
+import net.minecraft.network.NetworkSide;
+import net.minecraft.network.packet.BundlePacket;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.c2s.common.KeepAliveC2SPacket;
+import net.minecraft.network.packet.c2s.common.SyncedClientOptions;
+import net.minecraft.network.packet.c2s.play.AcknowledgeChunksC2SPacket;
+import net.minecraft.network.packet.c2s.play.TeleportConfirmC2SPacket;
+import net.minecraft.network.packet.s2c.common.KeepAliveS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkSentS2CPacket;
+import net.minecraft.network.packet.s2c.play.PlayerPositionLookS2CPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ConnectedClientData;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.MathHelper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * A player joined through an in-memory connection. Packets sent to it pile up in the embedded
+ * channel until {@link #drain} counts them and answers what a real client would, so chunk
+ * batches keep flowing and the connection does not time out.
+ */
+final class SimulatedPlayer {
+    private static final float DESIRED_CHUNKS_PER_TICK = 25.0F;
+    private static final double WALK_SPEED = 0.2;               // Blocks per tick, about walking pace
+    private static final float LOOK_AROUND_DEGREES = 4.5F;      // Yaw change per tick when standing
+
+    final ServerPlayerEntity player;
+    final boolean bedrock;
+    final Path path;
+    private final EmbeddedChannel channel;
+    private final ClientConnection connection;
+    private final int lane;
+    private final double phase;
+
+    long packets;
+    long bytes;
+
+    private SimulatedPlayer(ServerPlayerEntity player, EmbeddedChannel channel, ClientConnection connection,
+                            boolean bedrock, Path path, int lane, double phase) {
+        this.player = player;
+        this.channel = channel;
+        this.connection = connection;
+        this.bedrock = bedrock;
+        this.path = path;
+        this.lane = lane;
+        this.phase = phase;
+    }
+
+    static SimulatedPlayer connect(ServerWorld world, String name, boolean bedrock, Path path, int lane, double phase) {
+        MinecraftServer server = world.getServer();
+        GameProfile profile = new GameProfile(uuidFor(name), name);
+        ServerPlayerEntity player = new ServerPlayerEntity(server, world, profile, SyncedClientOptions.createDefault());
+        ClientConnection connection = new ClientConnection(NetworkSide.SERVERBOUND);
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        server.getPlayerManager().onPlayerConnect(connection, player, ConnectedClientData.createDefault(profile, false));
+        player.getAbilities().invulnerable = true;
+        player.setNoGravity(true);
+        return new SimulatedPlayer(player, channel, connection, bedrock, path, lane, phase);
+    }
+
+    static UUID uuidFor(String name) {
+        return UUID.nameUUIDFromBytes(("bedrockgraves-sim:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Moves the player to where its path puts it at the given tick, then runs the connection tick
+     * the server's network loop would, which also sends pending chunk batches.
+     */
+    void tick(long tick, double centerX, double centerZ, double groundY, double spread) {
+        double half = spread / 2;
+        double x;
+        double z;
+        float yaw;
+        switch (this.path) {
+            case ORBIT -> {
+                double radius = Math.max(4, half * 0.7 - this.lane);
+                double angle = this.phase + tick * WALK_SPEED / radius;
+                x = centerX + Math.cos(angle) * radius;
+                z = centerZ + Math.sin(angle) * radius;
+                yaw = (float) Math.toDegrees(angle); // Facing along the circle
+            }
+            case SWEEP -> {
+                // Back and forth across the area on a lane of its own
+                double length = spread - 8;
+                double travelled = (tick * WALK_SPEED + this.phase * length) % (2 * length);
+                boolean back = travelled > length;
+                x = centerX - length / 2 + (back ? 2 * length - travelled : travelled);
+                z = centerZ - half + 4 + (this.lane * 7) % Math.max(1, (int) spread - 8);
+                yaw = back ? 90.0F : -90.0F;
+            }
+            default -> {
+                x = centerX + (this.lane * 11) % Math.max(1, (int) half) - half / 2;
+                z = centerZ + (this.lane * 5) % Math.max(1, (int) half) - half / 2;
+                yaw = MathHelper.wrapDegrees((float) (this.phase * 360 + tick * LOOK_AROUND_DEGREES));
+            }
+        }
+        this.player.refreshPositionAndAngles(x, groundY, z, yaw, 0.0F);
+        this.player.setHeadYaw(yaw);
+        this.connection.tick();
+    }
+
+    /**
+     * Takes everything sent since the last call off the channel.
+     *
+     * @param count whether the packets belong to the measured window
+     */
+    void drain(PacketSizer sizer, boolean count) {
+        Object message;
+        while ((message = this.channel.readOutbound()) != null) {
+            if (!(message instanceof Packet<?> packet)) {
+                continue;
+            }
+            this.answer(packet);
+            if (!count) {
+                continue;
+            }
+            if (packet instanceof BundlePacket<?> bundle) {
+                for (Packet<?> inner : bundle.getPackets()) {
+                    this.packets++;
+                    this.bytes += sizer.size(inner);
+                }
+                this.bytes += 2L * PacketSizer.BUNDLE_DELIMITER_BYTES;
+            } else {
+                this.packets++;
+                this.bytes += sizer.size(packet);
+            }
+        }
+    }
+
+    void disconnect() {
+        this.player.networkHandler.onDisconnected(new DisconnectionInfo(Text.literal("Load simulation finished")));
+        this.channel.close();
+    }
+
+    private void answer(Packet<?> packet) {
+        if (packet instanceof KeepAliveS2CPacket keepAlive) {
+            this.player.networkHandler.onKeepAlive(new KeepAliveC2SPacket(keepAlive.getId()));
+        } else if (packet instanceof ChunkSentS2CPacket) {
+            this.player.networkHandler.onAcknowledgeChunks(new AcknowledgeChunksC2SPacket(DESIRED_CHUNKS_PER_TICK));
+        } else if (packet instanceof PlayerPositionLookS2CPacket teleport) {
+            this.player.networkHandler.onTeleportConfirm(new TeleportConfirmC2SPacket(teleport.teleportId()));
+        }
+    }
+
+    enum Path {
+        ORBIT,          // Circles the area, graves pass through view continuously
+        SWEEP,          // Walks straight lines across, crossing distance tiers
+        LOOK_AROUND     // Stands still and turns, exercising gaze priority
+    }
+}
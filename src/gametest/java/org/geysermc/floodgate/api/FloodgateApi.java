@@ -0,0 +1,34 @@
+package org.geysermc.floodgate.api;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for the Floodgate API in game tests, where no Bedrock client can connect. Only the
+ * methods the addon looks up reflectively exist; tests mark players as Bedrock before they join.
+ */
+public final class FloodgateApi {
+    private static final FloodgateApi INSTANCE = new FloodgateApi();
+
+    private final Set<UUID> players = ConcurrentHashMap.newKeySet();
+
+    private FloodgateApi() {
+    }
+
+    public static FloodgateApi getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isFloodgatePlayer(UUID uuid) {
+        return this.players.contains(uuid);
+    }
+
+    public void addPlayer(UUID uuid) {
+        this.players.add(uuid);
+    }
+
+    public void removePlayer(UUID uuid) {
+        this.players.remove(uuid);
+    }
+}
@@ -0,0 +1,62 @@
+package net.bedrockgraves.bench;
+
+import eu.pb4.graves.registry.GravesRegistry;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.SimpleRegistry;
+
+import java.lang.reflect.Field;
+import java.util.IdentityHashMap;
+
+/**
+ * Brings up the vanilla registries for benchmarks, plus the Universal Graves content the translator
+ * checks for. Benchmarks run without Fabric Loader, so the registries are reopened for the mod's
+ * static registration the same way Fabric API does it at startup, then frozen again.
+ */
+public final class GameBootstrap {
+    private static boolean initialized;
+
+    private GameBootstrap() {
+    }
+
+    public static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        try {
+            for (Registry<?> registry : Registries.REGISTRIES) {
+                unfreeze(registry, registry == Registries.ITEM || registry == Registries.BLOCK);
+            }
+            if (GravesRegistry.ICON_ITEM == null) {
+                throw new IllegalStateException("Universal Graves items did not register");
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not reopen the registries", e);
+        } finally {
+            for (Registry<?> registry : Registries.REGISTRIES) {
+                registry.freeze();
+            }
+        }
+        initialized = true;
+    }
+
+    private static void unfreeze(Registry<?> registry, boolean intrusive) throws ReflectiveOperationException {
+        if (!(registry instanceof SimpleRegistry<?>)) {
+            return;
+        }
+        Field frozen = SimpleRegistry.class.getDeclaredField("frozen");
+        frozen.setAccessible(true);
+        frozen.setBoolean(registry, false);
+        if (intrusive) {
+            // Items and blocks create their registry entries in their constructors
+            Field entries = SimpleRegistry.class.getDeclaredField("intrusiveValueToEntry");
+            entries.setAccessible(true);
+            entries.set(registry, new IdentityHashMap<>());
+        }
+    }
+}
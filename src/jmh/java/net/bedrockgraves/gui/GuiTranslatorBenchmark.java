@@ -0,0 +1,117 @@
+package net.bedrockgraves.gui;
+
+import eu.pb4.graves.registry.GravesRegistry;
+import eu.pb4.graves.registry.IconItem;
+import net.bedrockgraves.bench.GameBootstrap;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.LoreComponent;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BedrockGuiTranslator#translateForBedrock} per stack kind, and {@link ScreenTranslation} over a
+ * whole grave screen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GuiTranslatorBenchmark {
+    private static final int SCREEN_SLOTS = 54 + 36; // Double chest plus the player inventory
+    private static final int TAKEN_SLOT = 1;
+
+    private ItemStack iconItem;
+    private ItemStack namedHead;
+    private ItemStack passthrough;
+    private List<ItemStack> screen;
+    private List<ItemStack> resent;
+    private ItemStack taken;
+    private ScreenTranslation openScreen;
+
+    @Setup
+    public void setup() {
+        GameBootstrap.init();
+        List<Text> lore = List.of(Text.literal("Click to go to the next page").formatted(Formatting.GRAY));
+
+        this.iconItem = new ItemStack(GravesRegistry.ICON_ITEM);
+        this.iconItem.set(IconItem.TEXTURE, IconItem.Texture.NEXT_PAGE);
+        this.iconItem.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Next Page").formatted(Formatting.WHITE));
+        this.iconItem.set(DataComponentTypes.LORE, new LoreComponent(lore));
+
+        this.namedHead = new ItemStack(Items.PLAYER_HEAD);
+        this.namedHead.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Remove Protection").formatted(Formatting.RED));
+        this.namedHead.set(DataComponentTypes.LORE, new LoreComponent(lore));
+
+        this.passthrough = new ItemStack(Items.DIAMOND_SWORD);
+
+        // Shaped like a grave screen: a few buttons in the bottom row, the rest items and empty slots
+        this.screen = new ArrayList<>(SCREEN_SLOTS);
+        for (int i = 0; i < SCREEN_SLOTS; i++) {
+            if (i >= 45 && i < 54) {
+                this.screen.add(i % 2 == 0 ? this.iconItem.copy() : this.namedHead.copy());
+            } else if (i % 3 == 0) {
+                this.screen.add(ItemStack.EMPTY);
+            } else {
+                this.screen.add(new ItemStack(i % 2 == 0 ? Items.DIRT : Items.IRON_INGOT, 1 + i % 64));
+            }
+        }
+
+        this.resent = new ArrayList<>(this.screen);
+        this.taken = this.resent.get(TAKEN_SLOT);
+        this.openScreen = new ScreenTranslation(1);
+        this.openScreen.translate(this.resent);
+    }
+
+    @Benchmark
+    public ItemStack iconItem() {
+        return BedrockGuiTranslator.translateForBedrock(this.iconItem);
+    }
+
+    /**
+     * First sight of a button, before it is in the translation cache.
+     */
+    @Benchmark
+    public ItemStack iconItemUncached() {
+        TranslationCache.clear();
+        return BedrockGuiTranslator.translateForBedrock(this.iconItem);
+    }
+
+    @Benchmark
+    public ItemStack namedPlayerHead() {
+        return BedrockGuiTranslator.translateForBedrock(this.namedHead);
+    }
+
+    @Benchmark
+    public ItemStack passthrough() {
+        return BedrockGuiTranslator.translateForBedrock(this.passthrough);
+    }
+
+    /**
+     * First contents of a freshly opened screen, every slot translated.
+     */
+    @Benchmark
+    public List<ItemStack> fullInventory() {
+        return new ScreenTranslation(1).translate(this.screen);
+    }
+
+    /**
+     * Contents resent after one item was taken, the other slots reused from the last packet.
+     */
+    @Benchmark
+    public List<ItemStack> resendOneChanged() {
+        this.resent.set(TAKEN_SLOT, this.resent.get(TAKEN_SLOT) == ItemStack.EMPTY ? this.taken : ItemStack.EMPTY);
+        return this.openScreen.translate(this.resent);
+    }
+}
@@ -0,0 +1,100 @@
+package net.bedrockgraves.overlay;
+
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OverlayStateStore} lookups and updates with every viewer seeing every grave, the worst case
+ * of a crowded spawn area.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OverlayStateBenchmark {
+    private static final int WORLD = 1;
+    private static final int PROBES = 1024; // Power of two
+
+    @Param({"16", "128", "1024"})
+    public int graves;
+
+    @Param({"1", "20", "100"})
+    public int viewers;
+
+    private OverlayStateStore.Viewer viewer;
+    private long[] hits;
+    private long[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        OverlayStateStore.clearAll();
+        SplittableRandom random = new SplittableRandom(42);
+        long[] positions = new long[this.graves];
+        for (int i = 0; i < this.graves; i++) {
+            positions[i] = randomPos(random);
+        }
+
+        for (int v = 0; v < this.viewers; v++) {
+            OverlayStateStore.Viewer state = OverlayStateStore.getOrCreate(new UUID(0, v));
+            for (long pos : positions) {
+                state.insert(WORLD, pos);
+            }
+            this.viewer = state;
+        }
+
+        this.hits = new long[PROBES];
+        this.misses = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            this.hits[i] = positions[random.nextInt(positions.length)];
+            this.misses[i] = randomPos(random);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        OverlayStateStore.clearAll();
+    }
+
+    @Benchmark
+    public int findHit() {
+        return this.viewer.find(WORLD, this.hits[this.next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public int findMiss() {
+        return this.viewer.find(WORLD, this.misses[this.next++ & (PROBES - 1)]);
+    }
+
+    /**
+     * An overlay hidden and shown again, including the reverse index upkeep.
+     */
+    @Benchmark
+    public int removeAndInsert() {
+        long pos = this.hits[this.next++ & (PROBES - 1)];
+        this.viewer.removeAt(this.viewer.find(WORLD, pos));
+        return this.viewer.insert(WORLD, pos);
+    }
+
+    @Benchmark
+    public List<UUID> viewersOfGrave() {
+        return OverlayStateStore.viewersOf(WORLD, this.hits[this.next++ & (PROBES - 1)]);
+    }
+
+    private static long randomPos(SplittableRandom random) {
+        return BlockPos.asLong(random.nextInt(-512, 512), random.nextInt(-64, 320), random.nextInt(-512, 512));
+    }
+}
@@ -0,0 +1,44 @@
+package net.bedrockgraves.overlay;
+
+import net.bedrockgraves.bench.GameBootstrap;
+import net.minecraft.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hologram text of one grave, built and flattened the way the render cache does every update period.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OverlayTextBenchmark {
+    private int seconds;
+
+    @Setup
+    public void setup() {
+        GameBootstrap.init();
+    }
+
+    @Benchmark
+    public Text buildText() {
+        return BedrockOverlayManager.buildText("Steve", "Steve fell from a high place", 27, 130,
+                countdown(this.seconds++), countdown(this.seconds + 600));
+    }
+
+    @Benchmark
+    public String buildAndFlatten() {
+        return BedrockOverlayManager.buildText("Steve", "Steve fell from a high place", 27, 130,
+                countdown(this.seconds++), countdown(this.seconds + 600)).getString();
+    }
+
+    private static String countdown(int seconds) {
+        return (seconds / 60 % 60) + "m " + (seconds % 60) + "s";
+    }
+}
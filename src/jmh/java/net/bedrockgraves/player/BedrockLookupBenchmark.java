@@ -0,0 +1,95 @@
+package net.bedrockgraves.player;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bedrock status lookups: the per-connection flag every packet reads, and the UUID set used where
+ * only a player id is at hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BedrockLookupBenchmark {
+    private static final int PROBES = 256; // Power of two
+
+    @Param({"10", "200"})
+    public int bedrockOnline;
+
+    private Set<UUID> bedrockPlayers;
+    private BedrockConnection[] connections;
+    private UUID[] uuids;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() throws ReflectiveOperationException {
+        // Players only enter the registry through a real join, so fill its set directly
+        Field field = BedrockPlayerRegistry.class.getDeclaredField("BEDROCK_PLAYERS");
+        field.setAccessible(true);
+        this.bedrockPlayers = (Set<UUID>) field.get(null);
+
+        this.connections = new BedrockConnection[PROBES];
+        this.uuids = new UUID[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            boolean bedrock = i % 2 == 0;
+            this.uuids[i] = UUID.randomUUID();
+            if (bedrock && this.bedrockPlayers.size() < this.bedrockOnline) {
+                this.bedrockPlayers.add(this.uuids[i]);
+            }
+            this.connections[i] = new Connection(bedrock ? BedrockConnection.STATE_BEDROCK : BedrockConnection.STATE_JAVA);
+        }
+        while (this.bedrockPlayers.size() < this.bedrockOnline) {
+            this.bedrockPlayers.add(UUID.randomUUID());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.bedrockPlayers.clear();
+    }
+
+    @Benchmark
+    public boolean connectionFlag() {
+        return this.connections[this.next++ & (PROBES - 1)].bedrockgraves$getBedrockState() == BedrockConnection.STATE_BEDROCK;
+    }
+
+    @Benchmark
+    public boolean byUuid() {
+        return BedrockPlayerRegistry.isBedrock(this.uuids[this.next++ & (PROBES - 1)]);
+    }
+
+    /**
+     * Stand-in for a network handler carrying the mixin field; handlers cannot be created without a server.
+     */
+    private static final class Connection implements BedrockConnection {
+        private byte state;
+
+        private Connection(byte state) {
+            this.state = state;
+        }
+
+        @Override
+        public byte bedrockgraves$getBedrockState() {
+            return this.state;
+        }
+
+        @Override
+        public void bedrockgraves$setBedrockState(byte state) {
+            this.state = state;
+        }
+    }
+}
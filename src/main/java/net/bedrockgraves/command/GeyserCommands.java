@@ -0,0 +1,51 @@
+package net.bedrockgraves.command;
+
+import com.mojang.brigadier.context.CommandContext;
+import net.bedrockgraves.config.GeyserConfig;
+import net.bedrockgraves.gui.BedrockGuiTranslator;
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.bedrockgraves.overlay.BedrockOverlayManager;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import java.util.List;
+
+/**
+ * Admin commands under {@code /gravesgeyser}: {@code reload} and {@code stats}.
+ */
+public final class GeyserCommands {
+    private GeyserCommands() {
+    }
+
+    public static void register() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> dispatcher.register(
+                CommandManager.literal("gravesgeyser")
+                        .requires(CommandManager.requirePermissionLevel(CommandManager.GAMEMASTERS_CHECK))
+                        .then(CommandManager.literal("reload").executes(GeyserCommands::reload))
+                        .then(CommandManager.literal("stats").executes(GeyserCommands::stats))));
+    }
+
+    private static int stats(CommandContext<ServerCommandSource> context) {
+        for (String line : GeyserMetrics.report()) {
+            context.getSource().sendFeedback(() -> Text.literal(line), false);
+        }
+        return 1;
+    }
+
+    private static int reload(CommandContext<ServerCommandSource> context) {
+        List<String> errors = GeyserConfig.load();
+        // Files without errors were applied even if another one was rejected
+        BedrockOverlayManager.onSettingsChanged();
+        BedrockGuiTranslator.onRulesChanged();
+        if (!errors.isEmpty()) {
+            context.getSource().sendError(Text.literal("Invalid config files were not reloaded, keeping their current settings: "
+                    + String.join("; ", errors)));
+            return 0;
+        }
+        context.getSource().sendFeedback(() -> Text.literal("Reloaded UniversalGraves-Geyser config with profile '"
+                + GeyserConfig.profile() + "' and " + GeyserConfig.buttons().rules.size() + " button rules"), true);
+        return 1;
+    }
+}
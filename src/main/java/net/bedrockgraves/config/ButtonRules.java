@@ -0,0 +1,157 @@
+package net.bedrockgraves.config;
+
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How GUI buttons shown as player heads are replaced for Bedrock players, by keywords in the
+ * button name. Filled from {@code config/universalgraves-geyser-buttons.json}; treat instances as
+ * read-only once they are validated.
+ *
+ * Keywords are grouped by locale so servers that translate Universal Graves can add their own
+ * wording next to the English defaults. Of all rules with a keyword in the name, the one with the
+ * highest priority wins, the earlier one in the file on ties.
+ */
+public final class ButtonRules {
+    public List<String> locales = new ArrayList<>(List.of("en_us"));    // Keyword sets in use, empty = all
+    public String fallbackItem = "minecraft:paper";                     // Heads that match no rule, name kept
+    public List<Rule> rules = new ArrayList<>();
+
+    public static final class Rule {
+        public String id;
+        public int priority;
+        public String item;
+        public String name;             // Replacement name, null keeps the original
+        public String color;
+        public String disabledItem;     // Used instead when the button is greyed out, optional
+        public String disabledColor;
+        public Map<String, List<String>> keywords = new LinkedHashMap<>();
+
+        public Rule() {
+        }
+
+        private Rule(String id, int priority, String item, String name, String color, String... keywords) {
+            this.id = id;
+            this.priority = priority;
+            this.item = item;
+            this.name = name;
+            this.color = color;
+            this.keywords.put("en_us", List.of(keywords));
+        }
+
+        private Rule disabled(String item, String color) {
+            this.disabledItem = item;
+            this.disabledColor = color;
+            return this;
+        }
+    }
+
+    /**
+     * The built-in table: Universal Graves' own buttons first, then generic names used by other mods.
+     */
+    public static ButtonRules defaults() {
+        ButtonRules defaults = new ButtonRules();
+        List<Rule> rules = defaults.rules;
+        rules.add(new Rule("next-page", 100, "minecraft:green_stained_glass", "Next Page →", "green", "next page")
+                .disabled("minecraft:gray_stained_glass", "dark_gray"));
+        rules.add(new Rule("previous-page", 99, "minecraft:red_stained_glass", "← Previous Page", "red", "previous page")
+                .disabled("minecraft:gray_stained_glass", "dark_gray"));
+        rules.add(new Rule("take-all", 98, "minecraft:chest", "Take All Items", "gold", "take all", "quick pickup"));
+        rules.add(new Rule("break-grave", 97, "minecraft:tnt", "Break Grave", "red", "break grave"));
+        rules.add(new Rule("remove-protection", 96, "minecraft:shield", "Remove Protection", "red", "remove protection"));
+
+        rules.add(new Rule("next", 50, "minecraft:green_stained_glass", "Next →", "green", "next", "forward", ">>", "→"));
+        rules.add(new Rule("previous", 49, "minecraft:red_stained_glass", "← Previous", "red", "previous", "prev", "<<", "←"));
+        rules.add(new Rule("back", 48, "minecraft:arrow", "← Back", "yellow", "back"));
+        rules.add(new Rule("close", 47, "minecraft:barrier", "Close", "red", "close", "exit", "cancel"));
+        rules.add(new Rule("confirm", 46, "minecraft:lime_dye", "Confirm", "green", "confirm", "click again"));
+        rules.add(new Rule("collect", 45, "minecraft:chest", "Collect Items", "gold", "collect", "take", "retrieve", "claim"));
+        rules.add(new Rule("delete", 44, "minecraft:lava_bucket", "Delete", "dark_red", "delete", "destroy"));
+        rules.add(new Rule("info", 43, "minecraft:book", "Info", "aqua", "info", "help", "?"));
+        rules.add(new Rule("grave", 42, "minecraft:skeleton_skull", null, null, "grave", "death", "died"));
+        rules.add(new Rule("protection", 41, "minecraft:shield", null, null, "protect", "lock", "unlock"));
+        return defaults;
+    }
+
+    /**
+     * Whether keywords of this locale are in use.
+     */
+    public boolean usesLocale(String locale) {
+        return this.locales.isEmpty() || this.locales.contains(locale);
+    }
+
+    /**
+     * @return a description of every invalid value, empty if the rules can be used
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (this.locales == null) {
+            errors.add("locales must be a list");
+        }
+        checkItem(errors, "fallbackItem", this.fallbackItem, false);
+        if (this.rules == null) {
+            errors.add("rules must be a list");
+            return errors;
+        }
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < this.rules.size(); i++) {
+            Rule rule = this.rules.get(i);
+            String where = rule != null && rule.id != null ? "rule '" + rule.id + "'" : "rule #" + (i + 1);
+            if (rule == null || rule.id == null || !ids.add(rule.id)) {
+                errors.add(where + " needs a unique id");
+                continue;
+            }
+            checkItem(errors, where + " item", rule.item, false);
+            checkItem(errors, where + " disabledItem", rule.disabledItem, true);
+            checkColor(errors, where + " color", rule.color);
+            checkColor(errors, where + " disabledColor", rule.disabledColor);
+
+            boolean hasKeyword = false;
+            if (rule.keywords != null) {
+                for (Map.Entry<String, List<String>> entry : rule.keywords.entrySet()) {
+                    if (entry.getValue() == null || entry.getValue().stream().anyMatch(k -> k == null || k.isEmpty())) {
+                        errors.add(where + " has an empty keyword for " + entry.getKey());
+                    } else if (this.locales != null && this.usesLocale(entry.getKey()) && !entry.getValue().isEmpty()) {
+                        hasKeyword = true;
+                    }
+                }
+            }
+            // Without locales the check would only repeat that error for every rule
+            if (!hasKeyword && this.locales != null) {
+                errors.add(where + " has no keywords for the locales in use " + this.locales);
+            }
+        }
+        return errors;
+    }
+
+    private static void checkItem(List<String> errors, String what, String id, boolean optional) {
+        if (id == null) {
+            if (!optional) {
+                errors.add(what + " is missing");
+            }
+            return;
+        }
+        Identifier identifier = Identifier.tryParse(id);
+        if (identifier == null || !Registries.ITEM.containsId(identifier)) {
+            errors.add(what + " '" + id + "' is not an item");
+        }
+    }
+
+    private static void checkColor(List<String> errors, String what, String color) {
+        if (color != null) {
+            Formatting formatting = Formatting.byName(color);
+            if (formatting == null || !formatting.isColor()) {
+                errors.add(what + " '" + color + "' is not a color");
+            }
+        }
+    }
+}
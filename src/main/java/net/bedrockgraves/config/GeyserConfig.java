@@ -0,0 +1,163 @@
+package net.bedrockgraves.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.bedrockgraves.BedrockGravesAddon;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads {@code config/universalgraves-geyser.json} and the button table in
+ * {@code config/universalgraves-geyser-buttons.json}.
+ *
+ * The main file names a built-in profile and may override single values of it:
+ * <pre>
+ * {
+ *   "profile": "large-server",
+ *   "overlay": { "maxDistance": 32 }
+ * }
+ * </pre>
+ * The button file holds the whole {@link ButtonRules} table and is written with the defaults on
+ * first start. Invalid files are rejected as a whole and the settings in use stay unchanged.
+ */
+public final class GeyserConfig {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String FILE_NAME = "universalgraves-geyser.json";
+    private static final String BUTTONS_FILE_NAME = "universalgraves-geyser-buttons.json";
+
+    private static volatile OverlaySettings overlay = new OverlaySettings();
+    private static volatile String profile = OverlaySettings.DEFAULT_PROFILE;
+    private static volatile ButtonRules buttons = ButtonRules.defaults();
+
+    private GeyserConfig() {
+    }
+
+    public static OverlaySettings overlay() {
+        return overlay;
+    }
+
+    public static String profile() {
+        return profile;
+    }
+
+    public static ButtonRules buttons() {
+        return buttons;
+    }
+
+    /**
+     * Reads both config files, creating missing ones with the defaults. Each file is applied
+     * on its own, so a mistake in one does not hold back changes to the other.
+     *
+     * @return the problems found, empty if all new settings are in use
+     */
+    public static List<String> load() {
+        Path dir = FabricLoader.getInstance().getConfigDir();
+        List<String> errors = new ArrayList<>();
+        errors.addAll(loadOverlay(dir.resolve(FILE_NAME)));
+        errors.addAll(loadButtons(dir.resolve(BUTTONS_FILE_NAME)));
+        for (String error : errors) {
+            BedrockGravesAddon.LOGGER.warn("[UniversalGraves-Geyser] Config: {}", error);
+        }
+        return errors;
+    }
+
+    private static List<String> loadOverlay(Path path) {
+        List<String> errors = new ArrayList<>();
+        try {
+            if (Files.notExists(path)) {
+                writeDefault(path);
+            }
+
+            JsonObject root;
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                root = JsonParser.parseReader(reader).getAsJsonObject();
+            }
+
+            String profileName = root.has("profile") ? root.get("profile").getAsString() : OverlaySettings.DEFAULT_PROFILE;
+            OverlaySettings settings = OverlaySettings.profile(profileName);
+            if (settings == null) {
+                errors.add("Unknown profile '" + profileName + "', expected one of " + OverlaySettings.profileNames());
+                return errors;
+            }
+
+            if (root.has("overlay")) {
+                // Apply the overrides on top of the profile field by field
+                JsonObject merged = GSON.toJsonTree(settings).getAsJsonObject();
+                for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject("overlay").entrySet()) {
+                    if (!merged.has(entry.getKey())) {
+                        errors.add("Unknown overlay setting '" + entry.getKey() + "'");
+                        continue;
+                    }
+                    merged.add(entry.getKey(), entry.getValue());
+                }
+                settings = GSON.fromJson(merged, OverlaySettings.class);
+            }
+
+            errors.addAll(settings.validate());
+            if (errors.isEmpty()) {
+                overlay = settings;
+                profile = profileName;
+                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Loaded config with profile '{}'", profileName);
+            }
+        } catch (IOException | JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            errors.add("Could not read " + FILE_NAME + ": " + e.getMessage());
+        }
+        return errors;
+    }
+
+    private static List<String> loadButtons(Path path) {
+        List<String> errors = new ArrayList<>();
+        try {
+            if (Files.notExists(path)) {
+                Files.createDirectories(path.getParent());
+                try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    GSON.toJson(ButtonRules.defaults(), writer);
+                }
+            }
+
+            ButtonRules rules;
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                rules = GSON.fromJson(reader, ButtonRules.class);
+            }
+            if (rules == null) {
+                errors.add(BUTTONS_FILE_NAME + " is empty");
+                return errors;
+            }
+
+            for (String error : rules.validate()) {
+                errors.add(BUTTONS_FILE_NAME + ": " + error);
+            }
+            if (errors.isEmpty()) {
+                buttons = rules;
+                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Loaded {} button rules for locales {}",
+                        rules.rules.size(), rules.locales.isEmpty() ? "(all)" : rules.locales);
+            }
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            errors.add("Could not read " + BUTTONS_FILE_NAME + ": " + e.getMessage());
+        }
+        return errors;
+    }
+
+    private static void writeDefault(Path path) throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("profile", OverlaySettings.DEFAULT_PROFILE);
+        root.add("overlay", new JsonObject());
+        Files.createDirectories(path.getParent());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            GSON.toJson(root, writer);
+        }
+    }
+}
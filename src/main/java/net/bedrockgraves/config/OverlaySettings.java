@@ -0,0 +1,173 @@
+package net.bedrockgraves.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tuning of the Bedrock overlay engine. Filled from a built-in profile and the overrides in the
+ * config file; treat instances as read-only once they are validated.
+ */
+public final class OverlaySettings {
+    public static final String DEFAULT_PROFILE = "default";
+
+    public int updatePeriodTicks = 5;               // Refresh shown overlays every 0.25 seconds
+    public long hideDelayMs = 200;                  // Delay before hiding overlay
+    public int equipDelayTicks = 1;                 // Fox equip after the spawn tick, 1 = end of the next; Geyser drops it sent with the spawn
+    public long workBudgetMicros = 0;               // Per-world overlay work per tick, 0 = unlimited
+    public int maxViewerPacketsPerTick = 64;        // Overlay packets per viewer per tick before work is deferred
+    public double maxDistance = 48;                 // Max render distance
+    public double graceDistance = 2;                // Skip LOS check within this distance
+    public double nearDistance = 12;                // Text, item fox and live countdowns up to here
+    public double midDistance = 24;                 // Text without countdowns up to here, one-line name beyond
+    public double tierHysteresis = 2;               // Distance past a tier boundary before switching
+    public int[] tierRefreshPeriods = {1, 4, 20};   // Refresh every N update periods for near, mid, far
+    // Line-of-sight sample points, relative to the text anchor above the grave
+    public double[][] losSampleOffsets = {
+            {0, 0, 0},
+            {0.4, 0, 0.4},
+            {-0.4, 0, -0.4},
+            {0, 0.5, 0},
+            {0, -0.3, 0}
+    };
+
+    private static final Map<String, OverlaySettings> PROFILES = new LinkedHashMap<>();
+
+    static {
+        PROFILES.put(DEFAULT_PROFILE, new OverlaySettings());
+
+        // Fewer and slower updates, smaller radius
+        OverlaySettings lowBandwidth = new OverlaySettings();
+        lowBandwidth.updatePeriodTicks = 10;
+        lowBandwidth.maxViewerPacketsPerTick = 24;
+        lowBandwidth.maxDistance = 32;
+        lowBandwidth.nearDistance = 8;
+        lowBandwidth.midDistance = 16;
+        lowBandwidth.tierRefreshPeriods = new int[]{2, 6, 30};
+        PROFILES.put("low-bandwidth", lowBandwidth);
+
+        // Overlays react quickly, at the cost of more packets
+        OverlaySettings lowLatency = new OverlaySettings();
+        lowLatency.updatePeriodTicks = 2;
+        lowLatency.hideDelayMs = 100;
+        lowLatency.maxViewerPacketsPerTick = 128;
+        lowLatency.tierRefreshPeriods = new int[]{1, 2, 10};
+        PROFILES.put("low-latency", lowLatency);
+
+        // Bounded tick time with many players and graves
+        OverlaySettings largeServer = new OverlaySettings();
+        largeServer.updatePeriodTicks = 10;
+        largeServer.workBudgetMicros = 2_000;
+        largeServer.maxViewerPacketsPerTick = 48;
+        largeServer.maxDistance = 40;
+        largeServer.nearDistance = 10;
+        largeServer.midDistance = 20;
+        largeServer.tierRefreshPeriods = new int[]{1, 4, 24};
+        largeServer.losSampleOffsets = new double[][]{
+                {0, 0, 0},
+                {0, 0.5, 0},
+                {0, -0.3, 0}
+        };
+        PROFILES.put("large-server", largeServer);
+    }
+
+    /**
+     * A fresh copy of the named built-in profile, or null if there is none.
+     */
+    public static OverlaySettings profile(String name) {
+        OverlaySettings profile = PROFILES.get(name);
+        return profile != null ? profile.copy() : null;
+    }
+
+    public static Set<String> profileNames() {
+        return PROFILES.keySet();
+    }
+
+    public OverlaySettings copy() {
+        OverlaySettings copy = new OverlaySettings();
+        copy.updatePeriodTicks = this.updatePeriodTicks;
+        copy.hideDelayMs = this.hideDelayMs;
+        copy.equipDelayTicks = this.equipDelayTicks;
+        copy.workBudgetMicros = this.workBudgetMicros;
+        copy.maxViewerPacketsPerTick = this.maxViewerPacketsPerTick;
+        copy.maxDistance = this.maxDistance;
+        copy.graceDistance = this.graceDistance;
+        copy.nearDistance = this.nearDistance;
+        copy.midDistance = this.midDistance;
+        copy.tierHysteresis = this.tierHysteresis;
+        copy.tierRefreshPeriods = this.tierRefreshPeriods.clone();
+        copy.losSampleOffsets = new double[this.losSampleOffsets.length][];
+        for (int i = 0; i < this.losSampleOffsets.length; i++) {
+            copy.losSampleOffsets[i] = this.losSampleOffsets[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * @return a description of every invalid value, empty if the settings can be used
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (this.updatePeriodTicks < 1 || this.updatePeriodTicks > 200) {
+            errors.add("updatePeriodTicks must be between 1 and 200");
+        }
+        if (this.hideDelayMs < 0) {
+            errors.add("hideDelayMs must not be negative");
+        }
+        if (this.equipDelayTicks < 0 || this.equipDelayTicks > 20) {
+            errors.add("equipDelayTicks must be between 0 and 20");
+        }
+        if (this.workBudgetMicros < 0) {
+            errors.add("workBudgetMicros must not be negative");
+        }
+        if (this.maxViewerPacketsPerTick < 8) {
+            // Fewer than a single full overlay would stall every viewer
+            errors.add("maxViewerPacketsPerTick must be at least 8");
+        }
+        if (!(this.maxDistance >= 1 && this.maxDistance <= 256)) {
+            errors.add("maxDistance must be between 1 and 256");
+        }
+        if (!(this.graceDistance >= 0 && this.graceDistance <= this.maxDistance)) {
+            errors.add("graceDistance must be between 0 and maxDistance");
+        }
+        if (!(this.nearDistance >= 0 && this.nearDistance <= this.midDistance && this.midDistance <= this.maxDistance)) {
+            errors.add("distances must satisfy 0 <= nearDistance <= midDistance <= maxDistance");
+        }
+        if (!(this.tierHysteresis >= 0 && this.tierHysteresis <= 8)) {
+            errors.add("tierHysteresis must be between 0 and 8");
+        }
+        if (this.tierRefreshPeriods == null || this.tierRefreshPeriods.length != 3) {
+            errors.add("tierRefreshPeriods must have exactly 3 entries (near, mid, far)");
+        } else {
+            for (int period : this.tierRefreshPeriods) {
+                if (period < 1 || period > 1200) {
+                    errors.add("tierRefreshPeriods entries must be between 1 and 1200");
+                    break;
+                }
+            }
+        }
+        if (this.losSampleOffsets == null || this.losSampleOffsets.length == 0) {
+            errors.add("losSampleOffsets must contain at least one point");
+        } else {
+            for (double[] offset : this.losSampleOffsets) {
+                // Points must stay inside the blocks the visibility cache watches for changes
+                if (offset == null || offset.length != 3
+                        || Math.abs(offset[0]) >= 0.5 || Math.abs(offset[1]) > 1 || Math.abs(offset[2]) >= 0.5) {
+                    errors.add("losSampleOffsets entries must be [x, y, z] with |x|, |z| < 0.5 and |y| <= 1");
+                    break;
+                }
+            }
+        }
+        return errors;
+    }
+
+    public double maxDistanceSq() {
+        return this.maxDistance * this.maxDistance;
+    }
+
+    public double graceDistanceSq() {
+        return this.graceDistance * this.graceDistance;
+    }
+}
@@ -2,7 +2,7 @@ package net.bedrockgraves.gui;
 
 import eu.pb4.graves.registry.GravesRegistry;
 import eu.pb4.graves.registry.IconItem;
-import net.bedrockgraves.BedrockGravesAddon;
+import net.bedrockgraves.config.GeyserConfig;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.LoreComponent;
 import net.minecraft.item.ItemStack;
@@ -10,9 +10,7 @@ import net.minecraft.item.Items;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
-import java.lang.reflect.Method;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Translates Polymer/SGUI custom head items to real Minecraft items
@@ -26,42 +24,22 @@ import java.util.UUID;
  * - REMOVE_PROTECTION -> "Remove Protection"
  *
  * Other buttons already use vanilla items (GOLD_INGOT, LEAD, ENDER_PEARL, etc.)
+ *
+ * Heads that Polymer already turned into player heads are recognized by their name,
+ * using the button rules from the config (see {@link net.bedrockgraves.config.ButtonRules}).
  */
 public final class BedrockGuiTranslator {
-
-    // Floodgate API state (lazy-loaded via reflection)
-    private static boolean floodgateChecked = false;
-    private static Method floodgateCheckMethod;
-    private static Object floodgateApiInstance;
+    private static volatile ButtonMatcher matcher = ButtonMatcher.compile(GeyserConfig.buttons());
 
     private BedrockGuiTranslator() {
     }
 
     /**
-     * Checks if the given UUID belongs to a Bedrock player via Floodgate.
+     * Recompiles the button rules after the config was loaded and drops translations made with the old ones.
      */
-    public static boolean isBedrockPlayer(UUID uuid) {
-        if (!floodgateChecked) {
-            floodgateChecked = true;
-            try {
-                Class<?> apiClass = Class.forName("org.geysermc.floodgate.api.FloodgateApi");
-                Method getInstance = apiClass.getMethod("getInstance");
-                floodgateApiInstance = getInstance.invoke(null);
-                floodgateCheckMethod = apiClass.getMethod("isFloodgatePlayer", UUID.class);
-            } catch (Exception e) {
-                BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Floodgate not available for GUI translation: {}", e.getMessage());
-            }
-        }
-
-        if (floodgateApiInstance == null || floodgateCheckMethod == null) {
-            return false;
-        }
-
-        try {
-            return (boolean) floodgateCheckMethod.invoke(floodgateApiInstance, uuid);
-        } catch (Exception e) {
-            return false;
-        }
+    public static void onRulesChanged() {
+        matcher = ButtonMatcher.compile(GeyserConfig.buttons());
+        TranslationCache.clear();
     }
 
     /**
@@ -69,7 +47,8 @@ public final class BedrockGuiTranslator {
      * Replaces Universal Graves IconItem and custom player heads with recognizable vanilla items.
      *
      * @param stack The original ItemStack
-     * @return A translated ItemStack for Bedrock, or the original if no translation needed
+     * @return A translated ItemStack for Bedrock, or the original if no translation needed.
+     *         Translated stacks may be shared between calls and must not be modified.
      */
     public static ItemStack translateForBedrock(ItemStack stack) {
         if (stack == null || stack.isEmpty()) {
@@ -78,43 +57,60 @@ public final class BedrockGuiTranslator {
 
         // Check if this is Universal Graves' IconItem (custom item that Polymer transforms to player heads)
         // This is the PRIMARY check - IconItem is what's actually in the packets before Polymer transforms them
-        if (stack.isOf(GravesRegistry.ICON_ITEM)) {
-            return translateIconItem(stack);
-        }
+        boolean iconItem = stack.isOf(GravesRegistry.ICON_ITEM);
 
         // Fallback: Also check for player heads (in case Polymer has already transformed the item)
-        if (!stack.isOf(Items.PLAYER_HEAD)) {
+        // Anything else, and heads without a name, stay as they are without touching the cache
+        if (!iconItem && (!stack.isOf(Items.PLAYER_HEAD) || !stack.contains(DataComponentTypes.CUSTOM_NAME))) {
             return stack;
         }
 
-        // Get the custom name to determine what this button does
-        Text customName = stack.get(DataComponentTypes.CUSTOM_NAME);
-        if (customName == null) {
-            // No custom name - might be a decorative head, leave as-is
-            return stack;
+        TranslationCache.Key key = TranslationCache.Key.of(stack);
+        ItemStack translated = TranslationCache.get(key);
+        if (translated == null) {
+            translated = iconItem ? translateIconItem(stack) : translatePlayerHead(stack);
+            TranslationCache.put(key, translated);
         }
+        return translated;
+    }
 
-        String name = customName.getString().toLowerCase();
+    public static int cacheSize() {
+        return TranslationCache.size();
+    }
+
+    /**
+     * Translates a named player head by the button rules matching its name.
+     */
+    private static ItemStack translatePlayerHead(ItemStack stack) {
+        // Get the custom name to determine what this button does
+        Text customName = stack.get(DataComponentTypes.CUSTOM_NAME);
+        String name = customName.getString();
 
         // Get lore for additional context and to preserve it
         LoreComponent lore = stack.get(DataComponentTypes.LORE);
         List<Text> loreLines = lore != null ? lore.lines() : List.of();
 
-        // Translate based on Universal Graves button names
-        ItemStack translated = translateUniversalGravesButton(name, customName, loreLines);
-        if (translated != null) {
-            return translated;
+        ButtonMatcher matcher = BedrockGuiTranslator.matcher;
+        ButtonMatcher.Rule rule = matcher.match(name);
+        if (rule == null) {
+            // If we couldn't identify the button, replace with a generic item
+            // to avoid Steve head confusion - preserve original name and lore
+            return createItem(matcher.fallbackItem().getDefaultStack(), customName, loreLines);
         }
 
-        // Fallback: try generic button name matching
-        translated = translateGenericButton(name, customName, loreLines);
-        if (translated != null) {
-            return translated;
+        if (rule.disabledItem() != null && isDisabled(name, customName)) {
+            return createItem(rule.disabledItem().getDefaultStack(),
+                    rule.disabledName() != null ? rule.disabledName() : customName, loreLines);
         }
+        return createItem(rule.item().getDefaultStack(), rule.name() != null ? rule.name() : customName, loreLines);
+    }
 
-        // If we couldn't identify the button, replace with a generic item
-        // to avoid Steve head confusion - preserve original name and lore
-        return createItem(Items.PAPER.getDefaultStack(), customName, loreLines);
+    /**
+     * Greyed-out buttons, like "Next Page" on the last page, are dark gray.
+     */
+    private static boolean isDisabled(String name, Text originalName) {
+        return name.startsWith("§8") || originalName.getStyle().getColor() != null
+                && originalName.getStyle().getColor().getName().equals("dark_gray");
     }
 
     /**
@@ -165,119 +161,6 @@ public final class BedrockGuiTranslator {
         };
     }
 
-    /**
-     * Translates Universal Graves specific buttons.
-     * These are the exact button names from Universal Graves source code.
-     */
-    private static ItemStack translateUniversalGravesButton(String nameLower, Text originalName, List<Text> lore) {
-        // === NAVIGATION BUTTONS ===
-        // "Next Page" - IconItem.Texture.NEXT_PAGE / NEXT_PAGE_BLOCKED
-        if (nameLower.contains("next page")) {
-            boolean disabled = nameLower.startsWith("§8") || originalName.getStyle().getColor() != null
-                    && originalName.getStyle().getColor().getName().equals("dark_gray");
-            if (disabled) {
-                return createItem(Items.GRAY_STAINED_GLASS.getDefaultStack(),
-                        Text.literal("Next Page →").formatted(Formatting.DARK_GRAY), lore);
-            }
-            return createItem(Items.GREEN_STAINED_GLASS.getDefaultStack(),
-                    Text.literal("Next Page →").formatted(Formatting.GREEN), lore);
-        }
-
-        // "Previous Page" - IconItem.Texture.PREVIOUS_PAGE / PREVIOUS_PAGE_BLOCKED
-        if (nameLower.contains("previous page")) {
-            boolean disabled = nameLower.startsWith("§8") || originalName.getStyle().getColor() != null
-                    && originalName.getStyle().getColor().getName().equals("dark_gray");
-            if (disabled) {
-                return createItem(Items.GRAY_STAINED_GLASS.getDefaultStack(),
-                        Text.literal("← Previous Page").formatted(Formatting.DARK_GRAY), lore);
-            }
-            return createItem(Items.RED_STAINED_GLASS.getDefaultStack(),
-                    Text.literal("← Previous Page").formatted(Formatting.RED), lore);
-        }
-
-        // === ACTION BUTTONS ===
-        // "Take All Items" - IconItem.Texture.QUICK_PICKUP
-        if (nameLower.contains("take all") || nameLower.contains("quick pickup")) {
-            return createItem(Items.CHEST.getDefaultStack(),
-                    Text.literal("Take All Items").formatted(Formatting.GOLD), lore);
-        }
-
-        // "Break Grave" - IconItem.Texture.BREAK_GRAVE
-        if (nameLower.contains("break grave")) {
-            return createItem(Items.TNT.getDefaultStack(),
-                    Text.literal("Break Grave").formatted(Formatting.RED), lore);
-        }
-
-        // "Remove Protection" - IconItem.Texture.REMOVE_PROTECTION
-        if (nameLower.contains("remove protection")) {
-            return createItem(Items.SHIELD.getDefaultStack(),
-                    Text.literal("Remove Protection").formatted(Formatting.RED), lore);
-        }
-
-        return null;
-    }
-
-    /**
-     * Translates generic button names that might be used by other mods or custom configs.
-     */
-    private static ItemStack translateGenericButton(String nameLower, Text originalName, List<Text> lore) {
-        // Navigation - generic
-        if (nameLower.contains("next") || nameLower.contains("forward") || nameLower.contains(">>") || nameLower.contains("→")) {
-            return createItem(Items.GREEN_STAINED_GLASS.getDefaultStack(),
-                    Text.literal("Next →").formatted(Formatting.GREEN), lore);
-        }
-        if (nameLower.contains("previous") || nameLower.contains("prev") || nameLower.contains("<<") || nameLower.contains("←")) {
-            return createItem(Items.RED_STAINED_GLASS.getDefaultStack(),
-                    Text.literal("← Previous").formatted(Formatting.RED), lore);
-        }
-        if (nameLower.contains("back")) {
-            return createItem(Items.ARROW.getDefaultStack(),
-                    Text.literal("← Back").formatted(Formatting.YELLOW), lore);
-        }
-
-        // Close/exit
-        if (nameLower.contains("close") || nameLower.contains("exit") || nameLower.contains("cancel")) {
-            return createItem(Items.BARRIER.getDefaultStack(),
-                    Text.literal("Close").formatted(Formatting.RED), lore);
-        }
-
-        // Confirm/accept
-        if (nameLower.contains("confirm") || nameLower.contains("click again")) {
-            return createItem(Items.LIME_DYE.getDefaultStack(),
-                    Text.literal("Confirm").formatted(Formatting.GREEN), lore);
-        }
-
-        // Collect/take
-        if (nameLower.contains("collect") || nameLower.contains("take") || nameLower.contains("retrieve") || nameLower.contains("claim")) {
-            return createItem(Items.CHEST.getDefaultStack(),
-                    Text.literal("Collect Items").formatted(Formatting.GOLD), lore);
-        }
-
-        // Delete/remove/destroy
-        if (nameLower.contains("delete") || nameLower.contains("destroy")) {
-            return createItem(Items.LAVA_BUCKET.getDefaultStack(),
-                    Text.literal("Delete").formatted(Formatting.DARK_RED), lore);
-        }
-
-        // Info/help
-        if (nameLower.contains("info") || nameLower.contains("help") || nameLower.contains("?")) {
-            return createItem(Items.BOOK.getDefaultStack(),
-                    Text.literal("Info").formatted(Formatting.AQUA), lore);
-        }
-
-        // Player grave representation (show as skeleton skull)
-        if (nameLower.contains("grave") || nameLower.contains("death") || nameLower.contains("died")) {
-            return createItem(Items.SKELETON_SKULL.getDefaultStack(), originalName, lore);
-        }
-
-        // Protection related
-        if (nameLower.contains("protect") || nameLower.contains("lock") || nameLower.contains("unlock")) {
-            return createItem(Items.SHIELD.getDefaultStack(), originalName, lore);
-        }
-
-        return null;
-    }
-
     /**
      * Creates an ItemStack with the given name and lore.
      */
@@ -0,0 +1,161 @@
+package net.bedrockgraves.gui;
+
+import it.unimi.dsi.fastutil.chars.Char2IntMap;
+import it.unimi.dsi.fastutil.chars.Char2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.bedrockgraves.config.ButtonRules;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ButtonRules} compiled into an Aho-Corasick automaton over the keywords of the locales in
+ * use, so the winning rule for a button name is found in one pass over its characters.
+ * Matching ignores case and allocates nothing.
+ *
+ * Immutable once compiled, safe to share between threads.
+ */
+final class ButtonMatcher {
+    private static final int ROOT = 0;
+
+    // Rules ordered best first, so the better of two matches is the lower index
+    private final Rule[] rules;
+    private final Item fallbackItem;
+    // Per automaton state: outgoing edges, failure link, and the best rule ending here or at any suffix
+    private final Char2IntOpenHashMap[] edges;
+    private final int[] failure;
+    private final int[] best;
+
+    private ButtonMatcher(Rule[] rules, Item fallbackItem, List<Char2IntOpenHashMap> edges, int[] failure, int[] best) {
+        this.rules = rules;
+        this.fallbackItem = fallbackItem;
+        this.edges = edges.toArray(new Char2IntOpenHashMap[0]);
+        this.failure = failure;
+        this.best = best;
+    }
+
+    /**
+     * Compiles validated rules, see {@link ButtonRules#validate()}.
+     */
+    static ButtonMatcher compile(ButtonRules config) {
+        List<ButtonRules.Rule> ordered = new ArrayList<>(config.rules);
+        // Stable sort, so ties keep the order of the file
+        ordered.sort(Comparator.comparingInt((ButtonRules.Rule rule) -> rule.priority).reversed());
+
+        Rule[] rules = new Rule[ordered.size()];
+        List<Char2IntOpenHashMap> edges = new ArrayList<>();
+        IntArrayList best = new IntArrayList();
+        edges.add(newEdges());
+        best.add(Integer.MAX_VALUE);
+
+        for (int index = 0; index < rules.length; index++) {
+            ButtonRules.Rule rule = ordered.get(index);
+            rules[index] = Rule.of(rule);
+            for (Map.Entry<String, List<String>> entry : rule.keywords.entrySet()) {
+                if (!config.usesLocale(entry.getKey())) {
+                    continue;
+                }
+                for (String keyword : entry.getValue()) {
+                    int state = ROOT;
+                    for (int i = 0; i < keyword.length(); i++) {
+                        char c = Character.toLowerCase(keyword.charAt(i));
+                        int next = edges.get(state).get(c);
+                        if (next < 0) {
+                            next = edges.size();
+                            edges.add(newEdges());
+                            best.add(Integer.MAX_VALUE);
+                            edges.get(state).put(c, next);
+                        }
+                        state = next;
+                    }
+                    best.set(state, Math.min(best.getInt(state), index));
+                }
+            }
+        }
+
+        // Breadth-first, so the failure target of every state is finished before the state itself
+        int[] failure = new int[edges.size()];
+        IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
+        for (Char2IntMap.Entry edge : edges.get(ROOT).char2IntEntrySet()) {
+            queue.enqueue(edge.getIntValue());
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.dequeueInt();
+            for (Char2IntMap.Entry edge : edges.get(state).char2IntEntrySet()) {
+                int child = edge.getIntValue();
+                int fallback = failure[state];
+                while (fallback != ROOT && !edges.get(fallback).containsKey(edge.getCharKey())) {
+                    fallback = failure[fallback];
+                }
+                int target = edges.get(fallback).get(edge.getCharKey());
+                failure[child] = target >= 0 ? target : ROOT;
+                best.set(child, Math.min(best.getInt(child), best.getInt(failure[child])));
+                queue.enqueue(child);
+            }
+        }
+
+        Item fallbackItem = Registries.ITEM.get(Identifier.of(config.fallbackItem));
+        return new ButtonMatcher(rules, fallbackItem, edges, failure, best.toIntArray());
+    }
+
+    /**
+     * @return the winning rule for the name, or null if no keyword occurs in it
+     */
+    Rule match(String name) {
+        int state = ROOT;
+        int found = Integer.MAX_VALUE;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            int next;
+            while ((next = this.edges[state].get(c)) < 0 && state != ROOT) {
+                state = this.failure[state];
+            }
+            state = Math.max(next, ROOT);
+            if (this.best[state] < found) {
+                found = this.best[state];
+                if (found == 0) {
+                    break; // Nothing can beat the first rule
+                }
+            }
+        }
+        return found < this.rules.length ? this.rules[found] : null;
+    }
+
+    Item fallbackItem() {
+        return this.fallbackItem;
+    }
+
+    private static Char2IntOpenHashMap newEdges() {
+        Char2IntOpenHashMap edges = new Char2IntOpenHashMap(4);
+        edges.defaultReturnValue(-1);
+        return edges;
+    }
+
+    /**
+     * A rule with its items and names resolved. A null name keeps the button's own name.
+     */
+    record Rule(String id, Item item, Text name, Item disabledItem, Text disabledName) {
+        static Rule of(ButtonRules.Rule rule) {
+            Item item = Registries.ITEM.get(Identifier.of(rule.item));
+            Item disabledItem = rule.disabledItem != null ? Registries.ITEM.get(Identifier.of(rule.disabledItem)) : null;
+            return new Rule(rule.id, item, name(rule.name, rule.color), disabledItem, name(rule.name, rule.disabledColor));
+        }
+
+        private static Text name(String name, String color) {
+            if (name == null) {
+                return null;
+            }
+            MutableText text = Text.literal(name);
+            return color != null ? text.formatted(Formatting.byName(color)) : text;
+        }
+    }
+}
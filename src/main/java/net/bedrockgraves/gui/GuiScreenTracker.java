@@ -0,0 +1,65 @@
+package net.bedrockgraves.gui;
+
+import eu.pb4.sgui.api.GuiHelpers;
+import eu.pb4.sgui.virtual.VirtualScreenHandlerInterface;
+import net.bedrockgraves.player.BedrockPlayerRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SGUI screen each Bedrock player has open. Universal Graves builds all of its screens with
+ * SGUI, so only packets for these sync ids can carry buttons that need translating; the player
+ * inventory, chests and other mods' screens are left alone.
+ *
+ * Each screen keeps its last translated contents, dropped with the screen when it closes.
+ */
+public final class GuiScreenTracker {
+    private static final Map<UUID, ScreenTranslation> OPEN_SCREENS = new ConcurrentHashMap<>();
+
+    private GuiScreenTracker() {
+    }
+
+    public static void register() {
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> OPEN_SCREENS.remove(handler.player.getUuid()));
+    }
+
+    /**
+     * Called before a screen's contents are first sent, while the previous screen is still current.
+     */
+    public static void onScreenOpened(ServerPlayerEntity player, ScreenHandler handler) {
+        if (!BedrockPlayerRegistry.isBedrock(player)) {
+            return;
+        }
+        if (handler instanceof VirtualScreenHandlerInterface) {
+            OPEN_SCREENS.put(player.getUuid(), new ScreenTranslation(handler.syncId));
+        } else {
+            OPEN_SCREENS.remove(player.getUuid());
+        }
+    }
+
+    public static void onScreenClosed(ServerPlayerEntity player) {
+        OPEN_SCREENS.remove(player.getUuid());
+    }
+
+    /**
+     * @return the player's SGUI screen with this sync id, or null if packets for it are not translated
+     */
+    public static ScreenTranslation screen(ServerPlayerEntity player, int syncId) {
+        ScreenTranslation open = OPEN_SCREENS.get(player.getUuid());
+        if (open != null) {
+            return open.syncId() == syncId ? open : null;
+        }
+        // Screens opened before the player's status was known
+        if (GuiHelpers.getCurrentGui(player) == null || player.currentScreenHandler.syncId != syncId) {
+            return null;
+        }
+        open = new ScreenTranslation(syncId);
+        OPEN_SCREENS.put(player.getUuid(), open);
+        return open;
+    }
+}
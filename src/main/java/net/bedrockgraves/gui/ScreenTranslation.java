@@ -0,0 +1,120 @@
+package net.bedrockgraves.gui;
+
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.minecraft.item.ItemStack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Translated contents of one open screen, kept so a resend only translates the slots that changed.
+ *
+ * Slots are compared with the stacks of the previous packet, by identity first. The server sends
+ * copies it replaces rather than modifies, so an identical stack is an unchanged slot.
+ *
+ * Only touched from the thread sending the player's screen packets, the server thread.
+ */
+public final class ScreenTranslation {
+    private final int syncId;
+    private ItemStack[] sources = new ItemStack[0];
+    private ItemStack[] translated = new ItemStack[0];
+    private int translatedSlots;            // Slots whose translation differs from the source
+    private List<ItemStack> published;      // Contents last handed out, never modified afterwards
+    private int retranslated;               // Slots translated by the last call, the rest were reused
+
+    ScreenTranslation(int syncId) {
+        this.syncId = syncId;
+    }
+
+    public int syncId() {
+        return this.syncId;
+    }
+
+    public int retranslated() {
+        return this.retranslated;
+    }
+
+    /**
+     * Translates full screen contents.
+     *
+     * @return the translated contents, to be used read-only, or null if no slot needs translating
+     */
+    public List<ItemStack> translate(List<ItemStack> contents) {
+        int size = contents.size();
+        if (size != this.sources.length) {
+            this.sources = new ItemStack[size];
+            this.translated = new ItemStack[size];
+            this.translatedSlots = 0;
+            this.published = null;
+        }
+
+        this.retranslated = 0;
+        for (int slot = 0; slot < size; slot++) {
+            ItemStack stack = contents.get(slot);
+            if (!this.reuse(slot, stack)) {
+                this.set(slot, stack);
+                this.retranslated++;
+            }
+        }
+        GeyserMetrics.GUI_SLOTS_REUSED.add(size - this.retranslated);
+
+        if (this.translatedSlots == 0) {
+            return null;
+        }
+        if (this.published == null) {
+            this.published = Collections.unmodifiableList(Arrays.asList(this.translated.clone()));
+        }
+        return this.published;
+    }
+
+    /**
+     * Translates the stack of a single slot update.
+     */
+    public ItemStack translateSlot(int slot, ItemStack stack) {
+        this.retranslated = 1;
+        if (slot < 0 || slot >= this.sources.length) {
+            // Not part of the contents seen so far
+            return BedrockGuiTranslator.translateForBedrock(stack);
+        }
+        if (this.reuse(slot, stack)) {
+            this.retranslated = 0;
+            GeyserMetrics.GUI_SLOTS_REUSED.increment();
+        } else {
+            this.set(slot, stack);
+        }
+        return this.translated[slot];
+    }
+
+    /**
+     * @return whether the slot still holds an equal stack, adopting the new instance if needed
+     */
+    private boolean reuse(int slot, ItemStack stack) {
+        ItemStack previous = this.sources[slot];
+        if (previous == stack) {
+            return true;
+        }
+        if (previous == null || !ItemStack.areEqual(previous, stack)) {
+            return false;
+        }
+        if (this.translated[slot] == previous) {
+            this.translated[slot] = stack;
+        }
+        this.sources[slot] = stack;
+        return true;
+    }
+
+    private void set(int slot, ItemStack stack) {
+        ItemStack previous = this.sources[slot];
+        if (previous != null && this.translated[slot] != previous) {
+            this.translatedSlots--;
+        }
+        ItemStack result = BedrockGuiTranslator.translateForBedrock(stack);
+        if (result != stack) {
+            this.translatedSlots++;
+        }
+        this.sources[slot] = stack;
+        this.translated[slot] = result;
+        this.published = null;
+    }
+}
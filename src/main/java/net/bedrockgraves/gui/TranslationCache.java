@@ -0,0 +1,75 @@
+package net.bedrockgraves.gui;
+
+import eu.pb4.graves.registry.IconItem;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.LoreComponent;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.text.Text;
+
+/**
+ * Translated buttons by the components the translation depends on. Grave screens resend the same
+ * few buttons on every page flip and refresh, so after the first screen nearly every lookup hits.
+ *
+ * Cached stacks are shared templates that go straight into outgoing packets and must never be
+ * modified. The least recently used entry is evicted once the cache is full.
+ */
+final class TranslationCache {
+    private static final int MAX_ENTRIES = 256; // Far more distinct buttons than any set of screens uses
+
+    private static final Object2ObjectLinkedOpenHashMap<Key, ItemStack> ENTRIES = new Object2ObjectLinkedOpenHashMap<>();
+
+    private TranslationCache() {
+    }
+
+    /**
+     * @return the cached translation, or null
+     */
+    static ItemStack get(Key key) {
+        ItemStack cached;
+        synchronized (ENTRIES) {
+            cached = ENTRIES.getAndMoveToLast(key);
+        }
+        if (cached != null) {
+            GeyserMetrics.GUI_CACHE_HITS.increment();
+        } else {
+            GeyserMetrics.GUI_CACHE_MISSES.increment();
+        }
+        return cached;
+    }
+
+    static void put(Key key, ItemStack translated) {
+        synchronized (ENTRIES) {
+            ENTRIES.putAndMoveToLast(key, translated);
+            if (ENTRIES.size() > MAX_ENTRIES) {
+                ENTRIES.removeFirst();
+                GeyserMetrics.GUI_CACHE_EVICTIONS.increment();
+            }
+        }
+    }
+
+    static int size() {
+        synchronized (ENTRIES) {
+            return ENTRIES.size();
+        }
+    }
+
+    static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+        }
+    }
+
+    /**
+     * Everything a translation reads from the source stack. Stack size is left out since
+     * translated buttons are always single items.
+     */
+    record Key(Item item, IconItem.Texture texture, Text name, LoreComponent lore) {
+        static Key of(ItemStack stack) {
+            return new Key(stack.getItem(), stack.get(IconItem.TEXTURE),
+                    stack.get(DataComponentTypes.CUSTOM_NAME), stack.get(DataComponentTypes.LORE));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package net.bedrockgraves.metrics;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.bedrockgraves.BedrockGravesAddon;
+import net.bedrockgraves.gui.BedrockGuiTranslator;
+import net.bedrockgraves.overlay.BedrockOverlayManager;
+import net.bedrockgraves.player.BedrockPlayerRegistry;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.network.NetworkState;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.encoding.VarInts;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.BlockUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.EntitiesDestroyS2CPacket;
+import net.minecraft.network.packet.s2c.play.EntityEquipmentUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.EntitySpawnS2CPacket;
+import net.minecraft.network.packet.s2c.play.EntityStatusEffectS2CPacket;
+import net.minecraft.network.packet.s2c.play.EntityTrackerUpdateS2CPacket;
+import net.minecraft.network.state.PlayStateFactories;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timings of the addon's hot paths, always on. Everything is a {@link LongAdder} or a
+ * {@link TimingHistogram}, so recording from the server and netty threads never contends.
+ * Values are totals since the server started.
+ */
+public final class GeyserMetrics {
+    private static final int LOG_INTERVAL_TICKS = 20 * 60 * 5; // Summary line every 5 minutes
+    private static final int BYTE_SAMPLE_INTERVAL = 64;         // Encode one flushed overlay batch in this many
+
+    // Overlay engine, pass timings per world
+    private static final Map<RegistryKey<World>, TimingHistogram> OVERLAY_PASS = new ConcurrentHashMap<>();
+    public static final LongAdder OVERLAY_VIEWERS = new LongAdder();
+    public static final LongAdder OVERLAY_GRAVES = new LongAdder();
+    public static final LongAdder OVERLAY_RAYCASTS = new LongAdder();
+    public static final LongAdder OVERLAY_BUNDLES = new LongAdder();
+    private static final LongAdder[] OVERLAY_PACKETS = new LongAdder[PacketKind.values().length];
+    private static final LongAdder[] OVERLAY_BYTES = new LongAdder[PacketKind.values().length];  // Estimated from samples
+
+    // GUI translation for Bedrock players
+    public static final TimingHistogram GUI_TRANSLATION = new TimingHistogram();
+    public static final LongAdder GUI_INSPECTED = new LongAdder();
+    public static final LongAdder GUI_SKIPPED = new LongAdder();      // Inventory traffic of non-SGUI screens
+    public static final LongAdder GUI_TRANSLATED = new LongAdder();
+    public static final LongAdder GUI_SLOTS_REUSED = new LongAdder();  // Unchanged slots taken from the screen's last packet
+    public static final LongAdder GUI_CACHE_HITS = new LongAdder();
+    public static final LongAdder GUI_CACHE_MISSES = new LongAdder();
+    public static final LongAdder GUI_CACHE_EVICTIONS = new LongAdder();
+
+    // Grave creation
+    public static final TimingHistogram GRAVE_CREATION = new TimingHistogram();
+    public static final LongAdder GRAVE_CREATED = new LongAdder();
+    public static final LongAdder GRAVE_RETRIES = new LongAdder();
+    public static final LongAdder GRAVE_FAILURES = new LongAdder();
+
+    private static int ticksUntilLog = LOG_INTERVAL_TICKS;
+
+    // Overlay byte sampling (server thread only)
+    private static int batchesUntilSample = BYTE_SAMPLE_INTERVAL;
+    private static DynamicRegistryManager sampleRegistries;
+    private static NetworkState<ClientPlayPacketListener> sampleState;
+    private static final ByteBuf SAMPLE_BUFFER = Unpooled.buffer(1024);
+
+    static {
+        for (int i = 0; i < OVERLAY_PACKETS.length; i++) {
+            OVERLAY_PACKETS[i] = new LongAdder();
+            OVERLAY_BYTES[i] = new LongAdder();
+        }
+    }
+
+    private GeyserMetrics() {
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (--ticksUntilLog <= 0) {
+                ticksUntilLog = LOG_INTERVAL_TICKS;
+                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Stats: {}", summaryLine());
+            }
+        });
+    }
+
+    /**
+     * Overlay pass timings of the world, created the first time the world is seen.
+     */
+    public static TimingHistogram overlayPass(RegistryKey<World> world) {
+        TimingHistogram histogram = OVERLAY_PASS.get(world);
+        return histogram != null ? histogram : OVERLAY_PASS.computeIfAbsent(world, k -> new TimingHistogram());
+    }
+
+    /**
+     * Counts a viewer's flushed overlay packets by what they do. One batch in
+     * {@value #BYTE_SAMPLE_INTERVAL} is also encoded, and its size scaled up into the byte estimate,
+     * so measuring bytes costs about one encode per that many batches.
+     */
+    public static void countOverlayBatch(List<? extends Packet<? super ClientPlayPacketListener>> packets,
+                                         DynamicRegistryManager registries) {
+        boolean sample = --batchesUntilSample <= 0;
+        if (sample) {
+            batchesUntilSample = BYTE_SAMPLE_INTERVAL;
+            if (sampleRegistries != registries) {
+                sampleRegistries = registries;
+                sampleState = PlayStateFactories.S2C.bind(RegistryByteBuf.makeFactory(registries));
+            }
+        }
+        for (Packet<? super ClientPlayPacketListener> packet : packets) {
+            int kind = PacketKind.of(packet).ordinal();
+            OVERLAY_PACKETS[kind].increment();
+            if (sample) {
+                OVERLAY_BYTES[kind].add((long) encodedSize(packet) * BYTE_SAMPLE_INTERVAL);
+            }
+        }
+    }
+
+    /**
+     * Framed size before compression, or 0 if the packet cannot be encoded here.
+     */
+    private static int encodedSize(Packet<? super ClientPlayPacketListener> packet) {
+        SAMPLE_BUFFER.clear();
+        try {
+            sampleState.codec().encode(SAMPLE_BUFFER, packet);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+        int length = SAMPLE_BUFFER.readableBytes();
+        return VarInts.getSizeInBytes(length) + length;
+    }
+
+    public static String summaryLine() {
+        return "overlay pass " + String.join("; ", overlayPassSummaries())
+                + ", graves " + OVERLAY_GRAVES.sum()
+                + ", raycasts " + OVERLAY_RAYCASTS.sum()
+                + ", packets " + sum(OVERLAY_PACKETS) + " (~" + sum(OVERLAY_BYTES) / 1024 + " KiB)"
+                + " | gui " + GUI_TRANSLATED.sum() + "/" + GUI_INSPECTED.sum() + " translated " + GUI_TRANSLATION.summary()
+                + " | graves created " + GRAVE_CREATED.sum() + ", retries " + GRAVE_RETRIES.sum()
+                + ", failures " + GRAVE_FAILURES.sum();
+    }
+
+    /**
+     * Full report for the stats command, one entry per line.
+     */
+    public static List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Bedrock players online: " + BedrockPlayerRegistry.onlineCount());
+        List<String> passes = overlayPassSummaries();
+        lines.add("Overlay pass:" + (passes.isEmpty() ? " none yet" : ""));
+        for (String pass : passes) {
+            lines.add("  " + pass);
+        }
+        lines.add("  viewer visits " + OVERLAY_VIEWERS.sum() + ", grave updates " + OVERLAY_GRAVES.sum()
+                + ", raycasts " + OVERLAY_RAYCASTS.sum());
+        lines.add("  visibility cache hits " + BedrockOverlayManager.visibilityCacheHits()
+                + ", misses " + BedrockOverlayManager.visibilityCacheMisses());
+        lines.add("  overlays " + BedrockOverlayManager.overlayCount()
+                + ", state " + BedrockOverlayManager.stateFootprintBytes() / 1024 + " KiB"
+                + ", deferred updates " + BedrockOverlayManager.deferredUpdates()
+                + ", throttled viewer ticks " + BedrockOverlayManager.throttledViewerTicks());
+        StringBuilder packets = new StringBuilder("  packets");
+        for (PacketKind kind : PacketKind.values()) {
+            packets.append(' ').append(kind.name().toLowerCase(Locale.ROOT)).append('=').append(OVERLAY_PACKETS[kind.ordinal()].sum());
+        }
+        packets.append(", bundles ").append(OVERLAY_BUNDLES.sum());
+        lines.add(packets.toString());
+        StringBuilder bytes = new StringBuilder("  bytes, estimated from 1 in " + BYTE_SAMPLE_INTERVAL + " batches before compression,");
+        for (PacketKind kind : PacketKind.values()) {
+            bytes.append(' ').append(kind.name().toLowerCase(Locale.ROOT)).append('=').append(OVERLAY_BYTES[kind.ordinal()].sum());
+        }
+        lines.add(bytes.toString());
+        lines.add("GUI translation: " + GUI_TRANSLATION.summary());
+        lines.add("  inspected " + GUI_INSPECTED.sum() + ", translated " + GUI_TRANSLATED.sum()
+                + ", skipped outside SGUI screens " + GUI_SKIPPED.sum() + ", unchanged slots reused " + GUI_SLOTS_REUSED.sum());
+        long hits = GUI_CACHE_HITS.sum();
+        long lookups = hits + GUI_CACHE_MISSES.sum();
+        lines.add("  translation cache " + BedrockGuiTranslator.cacheSize() + " entries, hits " + hits + "/" + lookups
+                + (lookups > 0 ? String.format(Locale.ROOT, " (%.1f%%)", 100.0 * hits / lookups) : "")
+                + ", evictions " + GUI_CACHE_EVICTIONS.sum());
+        lines.add("Grave creation: " + GRAVE_CREATION.summary());
+        lines.add("  created " + GRAVE_CREATED.sum() + ", retries " + GRAVE_RETRIES.sum()
+                + ", failures " + GRAVE_FAILURES.sum());
+        lines.add("Scheduler: pending " + BedrockGravesAddon.SCHEDULER.pending()
+                + ", executed " + BedrockGravesAddon.SCHEDULER.executed()
+                + ", deferred " + BedrockGravesAddon.SCHEDULER.deferred()
+                + ", max lag " + BedrockGravesAddon.SCHEDULER.maxLagTicks() + " ticks");
+        return lines;
+    }
+
+    /**
+     * One entry per world that had overlay work, sorted by world id.
+     */
+    private static List<String> overlayPassSummaries() {
+        List<String> summaries = new ArrayList<>(OVERLAY_PASS.size());
+        OVERLAY_PASS.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> entry.getKey().getValue().toString()))
+                .forEach(entry -> summaries.add(entry.getKey().getValue() + " " + entry.getValue().summary()));
+        return summaries;
+    }
+
+    private static long sum(LongAdder[] adders) {
+        long total = 0;
+        for (LongAdder adder : adders) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    private enum PacketKind {
+        SPAWN,
+        TRACKER,
+        EQUIPMENT,
+        EFFECT,
+        DESTROY,
+        BLOCK,
+        BLOCK_ENTITY,
+        OTHER;
+
+        static PacketKind of(Packet<?> packet) {
+            if (packet instanceof EntitySpawnS2CPacket) {
+                return SPAWN;
+            } else if (packet instanceof EntityTrackerUpdateS2CPacket) {
+                return TRACKER;
+            } else if (packet instanceof EntityEquipmentUpdateS2CPacket) {
+                return EQUIPMENT;
+            } else if (packet instanceof EntityStatusEffectS2CPacket) {
+                return EFFECT;
+            } else if (packet instanceof EntitiesDestroyS2CPacket) {
+                return DESTROY;
+            } else if (packet instanceof BlockUpdateS2CPacket) {
+                return BLOCK;
+            } else if (packet instanceof BlockEntityUpdateS2CPacket) {
+                return BLOCK_ENTITY;
+            }
+            return OTHER;
+        }
+    }
+}
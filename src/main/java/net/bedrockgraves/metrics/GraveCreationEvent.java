@@ -0,0 +1,27 @@
+package net.bedrockgraves.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * One attempt to create a grave, including retries after a failure.
+ */
+@Name("universalgraves_geyser.GraveCreation")
+@Label("Grave Creation")
+@Description("Grave creation attempt run by the addon, retried on failure")
+@Category({"UniversalGraves-Geyser", "Graves"})
+@Threshold("0 ms") // Rare, so every attempt is kept
+public final class GraveCreationEvent extends jdk.jfr.Event {
+    @Label("Attempt")
+    @Description("1 for the first try, higher for retries")
+    public int attempt;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,31 @@
+package net.bedrockgraves.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Translation of one screen packet sent to a Bedrock player.
+ */
+@Name("universalgraves_geyser.GuiTranslation")
+@Label("Bedrock GUI Translation")
+@Description("Item translation of a screen packet sent to a Bedrock player")
+@Category({"UniversalGraves-Geyser", "GUI"})
+@StackTrace(false)
+@Threshold("1 ms")
+public final class GuiTranslationEvent extends jdk.jfr.Event {
+    @Label("Packet Type")
+    public String packetType;
+
+    @Label("Sync Id")
+    public int syncId;
+
+    @Label("Slots")
+    public int slots;
+
+    @Label("Changed Slots")
+    public int changed;
+}
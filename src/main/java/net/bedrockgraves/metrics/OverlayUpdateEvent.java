@@ -0,0 +1,45 @@
+package net.bedrockgraves.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One overlay update of a grave for one Bedrock viewer.
+ */
+@Name("universalgraves_geyser.OverlayUpdate")
+@Label("Grave Overlay Update")
+@Description("Visibility check and overlay packets for one grave and one Bedrock viewer")
+@Category({"UniversalGraves-Geyser", "Overlay"})
+@StackTrace(false)
+@Threshold("1 ms")
+public final class OverlayUpdateEvent extends jdk.jfr.Event {
+    @Label("World")
+    public String world;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Z")
+    public int z;
+
+    @Label("Viewer")
+    public String viewer;
+
+    @Label("Viewers In World")
+    @Description("Bedrock players with overlay work in the world this tick")
+    public int viewers;
+
+    @Label("Raycasts")
+    public int raycasts;
+
+    @Label("Packets")
+    @Description("Overlay packets queued for the viewer by this update")
+    public int packets;
+}
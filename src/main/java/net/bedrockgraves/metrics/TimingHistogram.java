@@ -0,0 +1,86 @@
+package net.bedrockgraves.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with power-of-two nanosecond buckets. Recording is a few
+ * uncontended adds, cheap enough for every call on a hot path.
+ */
+public final class TimingHistogram {
+    private static final int BUCKETS = 40; // Up to 2^39 ns, about 9 minutes
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public TimingHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // Bucket i holds durations below 2^i ns
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+        this.buckets[bucket].increment();
+        this.count.increment();
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulate(nanos);
+    }
+
+    public long count() {
+        return this.count.sum();
+    }
+
+    public long totalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return this.maxNanos.get();
+    }
+
+    public long meanNanos() {
+        long count = this.count();
+        return count > 0 ? this.totalNanos() / count : 0;
+    }
+
+    /**
+     * Upper bound of the bucket containing the given quantile, e.g. 0.99 for p99.
+     */
+    public long quantileNanos(double quantile) {
+        long count = this.count();
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets[i].sum();
+            if (seen >= target) {
+                return Math.min(1L << i, this.maxNanos());
+            }
+        }
+        return this.maxNanos();
+    }
+
+    /**
+     * Short summary in microseconds, e.g. {@code n=120 mean=35us p50=32us p99=256us max=301us}.
+     */
+    public String summary() {
+        return "n=" + this.count()
+                + " mean=" + micros(this.meanNanos())
+                + " p50=" + micros(this.quantileNanos(0.5))
+                + " p99=" + micros(this.quantileNanos(0.99))
+                + " max=" + micros(this.maxNanos());
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1000) + "us";
+    }
+}
@@ -0,0 +1,14 @@
+package net.bedrockgraves.mixin;
+
+import net.minecraft.entity.decoration.ArmorStandEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+@Mixin(ArmorStandEntity.class)
+public interface ArmorStandEntityInvoker {
+    @Invoker("setMarker")
+    void bedrockgraves$setMarker(boolean marker);
+
+    @Invoker("setSmall")
+    void bedrockgraves$setSmall(boolean small);
+}
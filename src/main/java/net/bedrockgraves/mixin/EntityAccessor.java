@@ -0,0 +1,17 @@
+package net.bedrockgraves.mixin;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.data.TrackedData;
+import net.minecraft.text.Text;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.Optional;
+
+@Mixin(Entity.class)
+public interface EntityAccessor {
+    @Accessor("CUSTOM_NAME")
+    static TrackedData<Optional<Text>> bedrockgraves$getCustomNameData() {
+        throw new AssertionError();
+    }
+}
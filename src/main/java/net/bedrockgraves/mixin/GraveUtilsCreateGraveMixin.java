@@ -2,6 +2,8 @@ package net.bedrockgraves.mixin;
 
 import eu.pb4.graves.other.GraveUtils;
 import net.bedrockgraves.BedrockGravesAddon;
+import net.bedrockgraves.metrics.GraveCreationEvent;
+import net.bedrockgraves.metrics.GeyserMetrics;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Redirect;
@@ -24,24 +26,31 @@ public class GraveUtilsCreateGraveMixin {
     }
 
     private static void runWithRetry(Runnable task, int remainingAttempts) {
+        GraveCreationEvent event = new GraveCreationEvent();
+        event.attempt = MAX_GRAVE_RETRY - remainingAttempts + 1;
+        event.begin();
+        long start = System.nanoTime();
         try {
             task.run();
+            GeyserMetrics.GRAVE_CREATED.increment();
+            event.succeeded = true;
         } catch (Throwable t) {
+            event.error = t.toString();
             if (remainingAttempts > 0) {
                 BedrockGravesAddon.LOGGER.warn("Grave creation failed, retrying {} more time(s)", remainingAttempts, t);
                 scheduleRetry(task, remainingAttempts - 1);
             } else {
+                GeyserMetrics.GRAVE_FAILURES.increment();
                 BedrockGravesAddon.LOGGER.error("Grave creation failed after retries", t);
             }
+        } finally {
+            GeyserMetrics.GRAVE_CREATION.record(System.nanoTime() - start);
+            event.commit();
         }
     }
 
     private static void scheduleRetry(Runnable task, int remainingAttempts) {
-        BedrockGravesAddon.DO_ON_NEXT_TICK.add(new Runnable() {
-            @Override
-            public void run() {
-                runWithRetry(task, remainingAttempts);
-            }
-        });
+        GeyserMetrics.GRAVE_RETRIES.increment();
+        BedrockGravesAddon.SCHEDULER.execute(() -> runWithRetry(task, remainingAttempts));
     }
 }
@@ -0,0 +1,25 @@
+package net.bedrockgraves.mixin;
+
+import net.bedrockgraves.player.BedrockConnection;
+import net.minecraft.server.network.ServerCommonNetworkHandler;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Stores the settled Bedrock status directly on the connection.
+ */
+@Mixin(ServerCommonNetworkHandler.class)
+public abstract class ServerCommonNetworkHandlerMixin implements BedrockConnection {
+    @Unique
+    private byte bedrockgraves$bedrockState = BedrockConnection.STATE_UNKNOWN;
+
+    @Override
+    public byte bedrockgraves$getBedrockState() {
+        return this.bedrockgraves$bedrockState;
+    }
+
+    @Override
+    public void bedrockgraves$setBedrockState(byte state) {
+        this.bedrockgraves$bedrockState = state;
+    }
+}
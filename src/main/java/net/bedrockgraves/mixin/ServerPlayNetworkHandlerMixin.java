@@ -2,8 +2,18 @@ package net.bedrockgraves.mixin;
 
 import net.bedrockgraves.BedrockGravesAddon;
 import net.bedrockgraves.gui.BedrockGuiTranslator;
+import net.bedrockgraves.gui.GuiScreenTracker;
+import net.bedrockgraves.gui.ScreenTranslation;
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.bedrockgraves.metrics.GuiTranslationEvent;
+import net.bedrockgraves.overlay.BedrockOverlayManager;
+import net.bedrockgraves.overlay.SkullTracker;
+import net.bedrockgraves.player.BedrockConnection;
+import net.bedrockgraves.player.BedrockPlayerRegistry;
 import net.minecraft.item.ItemStack;
+import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.BundleS2CPacket;
 import net.minecraft.network.packet.s2c.play.InventoryS2CPacket;
 import net.minecraft.network.packet.s2c.play.ScreenHandlerSlotUpdateS2CPacket;
 import net.minecraft.server.network.ServerCommonNetworkHandler;
@@ -14,49 +24,127 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.ModifyVariable;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
- * Intercepts inventory/GUI packets sent to Bedrock players and translates
- * custom player head items (used by Polymer/SGUI) to recognizable vanilla items.
+ * Intercepts inventory/GUI packets of SGUI screens sent to Bedrock players and translates
+ * custom player head items (used by Polymer/SGUI) to recognizable vanilla items,
+ * and keeps graves shown as skulls in the chunks and blocks they are sent.
+ *
+ * A single hook sees every packet of every connection, so it decides on the connection's
+ * cached Bedrock flag first: Java connections return after one field read.
  */
 @Mixin(ServerCommonNetworkHandler.class)
 public class ServerPlayNetworkHandlerMixin {
 
-    private ServerPlayerEntity bedrockgraves$getPlayer() {
-        if (((Object) this) instanceof ServerPlayNetworkHandler handler) {
-            return handler.player;
-        }
-        return null;
-    }
-
-    /**
-     * Intercepts single slot updates and translates items for Bedrock players.
-     */
     @ModifyVariable(
             method = "sendPacket(Lnet/minecraft/network/packet/Packet;)V",
             at = @At("HEAD"),
             argsOnly = true
     )
-    private Packet<?> bedrockgraves$translateSlotPacket(Packet<?> packet) {
-        ServerPlayerEntity player = this.bedrockgraves$getPlayer();
-        if (player == null) {
+    private Packet<?> bedrockgraves$onSendPacket(Packet<?> packet) {
+        byte state = ((BedrockConnection) this).bedrockgraves$getBedrockState();
+        if (state == BedrockConnection.STATE_JAVA) {
             return packet;
         }
-
-        if (!(packet instanceof ScreenHandlerSlotUpdateS2CPacket slotPacket)) {
+        if (state == BedrockConnection.STATE_UNKNOWN
+                && !BedrockPlayerRegistry.isBedrock((ServerCommonNetworkHandler) (Object) this)) {
             return packet;
         }
-
-        if (!BedrockGuiTranslator.isBedrockPlayer(player.getUuid())) {
+        if (!(((Object) this) instanceof ServerPlayNetworkHandler handler) || handler.player == null) {
             return packet;
         }
+        return bedrockgraves$rewrite(handler.player, packet);
+    }
+
+    private static Packet<?> bedrockgraves$rewrite(ServerPlayerEntity player, Packet<?> packet) {
+        if (packet instanceof ScreenHandlerSlotUpdateS2CPacket slotPacket) {
+            ScreenTranslation screen = GuiScreenTracker.screen(player, slotPacket.getSyncId());
+            if (screen == null) {
+                GeyserMetrics.GUI_SKIPPED.increment();
+                return packet;
+            }
+            return bedrockgraves$translateSlotPacket(screen, slotPacket);
+        }
+        if (packet instanceof InventoryS2CPacket invPacket) {
+            ScreenTranslation screen = GuiScreenTracker.screen(player, invPacket.syncId());
+            if (screen == null) {
+                GeyserMetrics.GUI_SKIPPED.increment();
+                return packet;
+            }
+            return bedrockgraves$translateInventoryPacket(screen, invPacket);
+        }
+        if (packet instanceof BundleS2CPacket bundle) {
+            return bedrockgraves$rewriteBundle(player, bundle);
+        }
+        return bedrockgraves$rewriteSkullPacket(player, packet);
+    }
+
+    /**
+     * Rewrites the packets inside a bundle, which would otherwise reach the client untouched.
+     */
+    private static Packet<?> bedrockgraves$rewriteBundle(ServerPlayerEntity player, BundleS2CPacket bundle) {
+        List<Packet<? super ClientPlayPacketListener>> rewritten = null;
+        int index = 0;
+        for (Packet<? super ClientPlayPacketListener> inner : bundle.getPackets()) {
+            Packet<?> result = bedrockgraves$rewrite(player, inner);
+            if (result != inner && rewritten == null) {
+                // First change, take over the packets before it as they were
+                rewritten = new ArrayList<>();
+                Iterator<Packet<? super ClientPlayPacketListener>> previous = bundle.getPackets().iterator();
+                for (int i = 0; i < index; i++) {
+                    rewritten.add(previous.next());
+                }
+            }
+            if (rewritten != null) {
+                bedrockgraves$addUnbundled(rewritten, result);
+            }
+            index++;
+        }
+        return rewritten != null ? new BundleS2CPacket(rewritten) : bundle;
+    }
 
+    /**
+     * Bundles cannot be nested, so a rewrite that produced one is spliced into the outer bundle.
+     */
+    @SuppressWarnings("unchecked")
+    private static void bedrockgraves$addUnbundled(List<Packet<? super ClientPlayPacketListener>> packets, Packet<?> packet) {
+        if (packet instanceof BundleS2CPacket bundle) {
+            for (Packet<? super ClientPlayPacketListener> inner : bundle.getPackets()) {
+                packets.add(inner);
+            }
+        } else {
+            packets.add((Packet<? super ClientPlayPacketListener>) packet);
+        }
+    }
+
+    private static void bedrockgraves$commitEvent(GuiTranslationEvent event, String packetType, int syncId, int slots, int changed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.packetType = packetType;
+            event.syncId = syncId;
+            event.slots = slots;
+            event.changed = changed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Translates the item of a single slot update.
+     */
+    private static Packet<?> bedrockgraves$translateSlotPacket(ScreenTranslation screen, ScreenHandlerSlotUpdateS2CPacket slotPacket) {
+        GeyserMetrics.GUI_INSPECTED.increment();
+        GuiTranslationEvent event = new GuiTranslationEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             ItemStack original = slotPacket.getStack();
-            ItemStack translated = BedrockGuiTranslator.translateForBedrock(original);
+            ItemStack translated = screen.translateSlot(slotPacket.getSlot(), original);
+            bedrockgraves$commitEvent(event, "slot", slotPacket.getSyncId(), 1, screen.retranslated());
 
             if (translated != original) {
+                GeyserMetrics.GUI_TRANSLATED.increment();
                 return new ScreenHandlerSlotUpdateS2CPacket(
                         slotPacket.getSyncId(),
                         slotPacket.getRevision(),
@@ -66,47 +154,27 @@ public class ServerPlayNetworkHandlerMixin {
             }
         } catch (Exception e) {
             BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to translate slot packet: {}", e.getMessage());
+        } finally {
+            GeyserMetrics.GUI_TRANSLATION.record(System.nanoTime() - start);
         }
 
-        return packet;
+        return slotPacket;
     }
 
     /**
-     * Intercepts full inventory updates and translates items for Bedrock players.
+     * Translates a full inventory update, only the slots that changed since the screen's last packet.
      */
-    @ModifyVariable(
-            method = "sendPacket(Lnet/minecraft/network/packet/Packet;)V",
-            at = @At("HEAD"),
-            argsOnly = true
-    )
-    private Packet<?> bedrockgraves$translateInventoryPacket(Packet<?> packet) {
-        ServerPlayerEntity player = this.bedrockgraves$getPlayer();
-        if (player == null) {
-            return packet;
-        }
-
-        if (!(packet instanceof InventoryS2CPacket invPacket)) {
-            return packet;
-        }
-
-        if (!BedrockGuiTranslator.isBedrockPlayer(player.getUuid())) {
-            return packet;
-        }
-
+    private static Packet<?> bedrockgraves$translateInventoryPacket(ScreenTranslation screen, InventoryS2CPacket invPacket) {
+        GeyserMetrics.GUI_INSPECTED.increment();
+        GuiTranslationEvent event = new GuiTranslationEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            List<ItemStack> originalStacks = invPacket.contents();
-            List<ItemStack> translatedStacks = new ArrayList<>(originalStacks.size());
-            boolean anyChanged = false;
+            List<ItemStack> translatedStacks = screen.translate(invPacket.contents());
+            bedrockgraves$commitEvent(event, "inventory", invPacket.syncId(), invPacket.contents().size(), screen.retranslated());
 
-            for (ItemStack stack : originalStacks) {
-                ItemStack translated = BedrockGuiTranslator.translateForBedrock(stack);
-                translatedStacks.add(translated);
-                if (translated != stack) {
-                    anyChanged = true;
-                }
-            }
-
-            if (anyChanged) {
+            if (translatedStacks != null) {
+                GeyserMetrics.GUI_TRANSLATED.increment();
                 ItemStack cursorTranslated = BedrockGuiTranslator.translateForBedrock(invPacket.cursorStack());
                 return new InventoryS2CPacket(
                         invPacket.syncId(),
@@ -117,8 +185,23 @@ public class ServerPlayNetworkHandlerMixin {
             }
         } catch (Exception e) {
             BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to translate inventory packet: {}", e.getMessage());
+        } finally {
+            GeyserMetrics.GUI_TRANSLATION.record(System.nanoTime() - start);
         }
 
-        return packet;
+        return invPacket;
+    }
+
+    /**
+     * Follows the chunks a Bedrock player loads and keeps graves shown as skulls when chunks or blocks are resent.
+     */
+    private static Packet<?> bedrockgraves$rewriteSkullPacket(ServerPlayerEntity player, Packet<?> packet) {
+        try {
+            BedrockOverlayManager.onPacketSent(player, packet);
+            return SkullTracker.rewriteOutgoing(player, packet);
+        } catch (Exception e) {
+            BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to rewrite skull packet: {}", e.getMessage());
+            return packet;
+        }
     }
 }
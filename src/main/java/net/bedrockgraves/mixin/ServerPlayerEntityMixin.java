@@ -0,0 +1,25 @@
+package net.bedrockgraves.mixin;
+
+import net.bedrockgraves.gui.GuiScreenTracker;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Follows which screen a player has open, so GUI translation only runs for SGUI screens.
+ */
+@Mixin(ServerPlayerEntity.class)
+public class ServerPlayerEntityMixin {
+    @Inject(method = "onScreenHandlerOpened", at = @At("HEAD"))
+    private void bedrockgraves$onScreenOpened(ScreenHandler handler, CallbackInfo ci) {
+        GuiScreenTracker.onScreenOpened((ServerPlayerEntity) (Object) this, handler);
+    }
+
+    @Inject(method = "onHandledScreenClosed", at = @At("HEAD"))
+    private void bedrockgraves$onScreenClosed(CallbackInfo ci) {
+        GuiScreenTracker.onScreenClosed((ServerPlayerEntity) (Object) this);
+    }
+}
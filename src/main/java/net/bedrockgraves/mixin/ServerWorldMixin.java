@@ -0,0 +1,21 @@
+package net.bedrockgraves.mixin;
+
+import net.bedrockgraves.overlay.BedrockOverlayManager;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Feeds block changes to the overlay so cached line-of-sight results are invalidated.
+ */
+@Mixin(ServerWorld.class)
+public class ServerWorldMixin {
+    @Inject(method = "onBlockStateChanged", at = @At("TAIL"))
+    private void bedrockgraves$onBlockStateChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock, CallbackInfo ci) {
+        BedrockOverlayManager.onBlockChanged((ServerWorld) (Object) this, pos);
+    }
+}
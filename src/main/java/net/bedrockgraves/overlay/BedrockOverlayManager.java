@@ -5,41 +5,53 @@ import eu.pb4.graves.grave.Grave;
 import eu.pb4.graves.grave.GraveManager;
 import eu.pb4.graves.registry.GraveBlockEntity;
 import net.bedrockgraves.BedrockGravesAddon;
+import net.bedrockgraves.config.GeyserConfig;
+import net.bedrockgraves.config.OverlaySettings;
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.bedrockgraves.metrics.OverlayUpdateEvent;
+import net.bedrockgraves.player.BedrockPlayerRegistry;
+import net.bedrockgraves.scheduler.TaskHandle;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
 import eu.pb4.graves.ui.GraveGui;
 import eu.pb4.sgui.api.GuiHelpers;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import net.minecraft.block.BlockState;
-import net.minecraft.block.Blocks;
-import net.minecraft.block.SkullBlock;
-import net.minecraft.block.entity.SkullBlockEntity;
 import net.minecraft.entity.EntityType;
-import net.minecraft.entity.decoration.ArmorStandEntity;
-import net.minecraft.entity.data.DataTracker;
 import net.minecraft.entity.effect.StatusEffectInstance;
 import net.minecraft.entity.effect.StatusEffects;
 import net.minecraft.entity.EquipmentSlot;
-import net.minecraft.entity.passive.FoxEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
 import net.minecraft.network.packet.s2c.play.BlockUpdateS2CPacket;
-import net.minecraft.network.packet.s2c.play.EntitiesDestroyS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
 import net.minecraft.network.packet.s2c.play.EntityEquipmentUpdateS2CPacket;
 import net.minecraft.network.packet.s2c.play.EntitySpawnS2CPacket;
 import net.minecraft.network.packet.s2c.play.EntityStatusEffectS2CPacket;
 import net.minecraft.network.packet.s2c.play.EntityTrackerUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.UnloadChunkS2CPacket;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
-import net.minecraft.util.Identifier;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.RaycastContext;
 
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.List;
 
@@ -47,17 +59,16 @@ public final class BedrockOverlayManager {
     // Entity ID counter - uses negative range to avoid conflicts with real entities
     private static final AtomicInteger ENTITY_IDS = new AtomicInteger(-2_000_000_000);
 
-    // Active overlay tracking: player UUID -> (grave position -> overlay info)
-    private static final Map<UUID, Map<BlockPos, HoloInfo>> ACTIVE = new ConcurrentHashMap<>();
+    // Work priority
+    private static final double LOOK_COS_SQ = 0.75;             // View cone of about 30 degrees around the look direction
+    private static final double LOOK_PRIORITY_FACTOR = 0.25;    // Looked-at graves are treated as half as far away
 
-    // Timing constants
-    private static final int UPDATE_PERIOD_TICKS = 5;           // Update every 0.25 seconds
-    private static final long HIDE_DELAY_MS = 200;              // Delay before hiding overlay
-    private static final long RESPAWN_INTERVAL_MS = 30_000;     // Respawn entities every 30s
-
-    // Distance constants
-    private static final double MAX_DISTANCE_SQ = 48 * 48;      // Max render distance (48 blocks)
-    private static final double GRACE_DISTANCE_SQ = 2 * 2;      // Skip LOS check within 2 blocks
+    // Level of detail by distance: near gets text, item fox and live countdowns, mid the text without
+    // countdowns, far a one-line name. Viewers must pass a boundary by the hysteresis before they switch tier.
+    private static final byte TIER_NONE = -1;
+    private static final byte TIER_NEAR = 0;
+    private static final byte TIER_MID = 1;
+    private static final byte TIER_FAR = 2;
 
     // Position offsets for visual elements
     private static final double OFFSET_Y = 1.0;                 // Lift text above grave block
@@ -66,117 +77,545 @@ public final class BedrockOverlayManager {
     private static final double FOX_OFFSET_Z = 0.0;
     private static final double FOX_OFFSET_Y = -0.14;           // Sink item closer to ground
 
-    // Floodgate API state (lazy-loaded via reflection)
-    private static boolean floodgateChecked = false;
-    private static Method floodgateCheckMethod;
-    private static Object floodgateApiInstance;
+    // Tuning from the config file, picked up once per world pass (server thread only)
+    private static OverlaySettings settings = GeyserConfig.overlay();
 
-    private record HoloInfo(int textEntityId, int itemFoxId, Identifier worldId, long lastSpawnMs, long lastSeenMs, long lastHeadSendMs) {
-    }
+    // Per-viewer work queue, reused for each viewer (server thread only)
+    private static final OverlayWorkQueue WORK = new OverlayWorkQueue();
+    // Bedrock players with overlay work in the world being passed, and their watches (server thread only)
+    private static final List<ServerPlayerEntity> PASS_VIEWERS = new ArrayList<>();
+    private static final List<WatchedGraves.Watch> PASS_WATCHES = new ArrayList<>();
+
+    private static long deferredUpdates;
+    private static int raycastCount;            // Running count for the per-update JFR event
+    private static long throttledViewerTicks;
 
     private BedrockOverlayManager() {
     }
 
     public static void clearPlayer(UUID uuid) {
-        ACTIVE.remove(uuid);
+        OverlayStateStore.Viewer state = OverlayStateStore.remove(uuid);
+        if (state != null) {
+            for (int slot = 0; slot < state.capacity(); slot++) {
+                if (state.isUsed(slot) && state.equip(slot) != null) {
+                    state.equip(slot).cancel();
+                }
+            }
+        }
+        VisibilityCache.forgetViewer(uuid);
+        OverlayPacketCollector.forget(uuid);
+        SkullTracker.forget(uuid);
+        WatchedGraves.forget(uuid);
     }
 
-    public static void tick(GraveBlockEntity be) {
-        if (be.getWorld() == null || be.getWorld().isClient()) {
+    /**
+     * Called for every packet sent to a Bedrock player, picks up the chunks its client loads and unloads.
+     */
+    public static void onPacketSent(ServerPlayerEntity player, Packet<?> packet) {
+        if (!(packet instanceof ChunkDataS2CPacket) && !(packet instanceof UnloadChunkS2CPacket)) {
             return;
         }
-        ServerWorld world = (ServerWorld) be.getWorld();
-        BlockPos pos = be.getPos();
-        Grave grave = be.getGrave();
+        ServerWorld world = (ServerWorld) player.getEntityWorld();
+        if (!world.getServer().isOnThread()) {
+            return;
+        }
+        if (packet instanceof ChunkDataS2CPacket chunk) {
+            onChunkWatched(player, world, chunk.getChunkX(), chunk.getChunkZ());
+        } else {
+            ChunkPos pos = ((UnloadChunkS2CPacket) packet).pos();
+            onChunkUnwatched(player, world, pos.x, pos.z);
+        }
+    }
 
-        if (grave == null || grave.isRemoved()) {
-            clearForWorld(world, pos);
+    private static void onChunkWatched(ServerPlayerEntity player, ServerWorld world, int chunkX, int chunkZ) {
+        GraveIndex index = GraveIndex.get(world);
+        if (index == null) {
+            return;
+        }
+        List<GraveBlockEntity> graves = index.inChunk(chunkX, chunkZ);
+        if (graves.isEmpty()) {
             return;
         }
+        WatchedGraves.Watch watch = WatchedGraves.getOrCreate(player.getUuid(), OverlayStateStore.worldIndex(world));
+        for (GraveBlockEntity grave : graves) {
+            watch.add(grave.getPos().asLong());
+        }
+    }
 
-        if (world.getTime() % UPDATE_PERIOD_TICKS != 0) {
+    /**
+     * The client dropped the chunk together with its blocks, so overlays there are removed
+     * without restoring the real grave block.
+     */
+    private static void onChunkUnwatched(ServerPlayerEntity player, ServerWorld world, int chunkX, int chunkZ) {
+        WatchedGraves.Watch watch = WatchedGraves.get(player.getUuid());
+        if (watch != null) {
+            watch.removeChunk(chunkX, chunkZ);
+        }
+        OverlayStateStore.Viewer state = OverlayStateStore.get(player.getUuid());
+        if (state == null) {
             return;
         }
+        int worldIndex = OverlayStateStore.worldIndex(world);
+        int slot = 0;
+        while (slot < state.capacity()) {
+            if (state.isUsed(slot) && state.world(slot) == worldIndex
+                    && BlockPos.unpackLongX(state.pos(slot)) >> 4 == chunkX
+                    && BlockPos.unpackLongZ(state.pos(slot)) >> 4 == chunkZ) {
+                dropOverlay(player, state, slot);
+            } else {
+                slot++;
+            }
+        }
+    }
 
-        Identifier worldId = world.getRegistryKey().getValue();
-        boolean hasBedrockViewer = false;
-        ItemStack displayItem = pickItem(grave);
+    /**
+     * A grave appeared in a chunk players may already have loaded, e.g. a fresh death.
+     */
+    private static void onGraveLoaded(ServerWorld world, GraveBlockEntity grave) {
+        GraveIndex.add(world, grave);
+        int worldIndex = -1;
+        for (ServerPlayerEntity player : PlayerLookup.tracking(world, grave.getPos())) {
+            if (BedrockPlayerRegistry.isBedrock(player)) {
+                if (worldIndex < 0) {
+                    worldIndex = OverlayStateStore.worldIndex(world);
+                }
+                WatchedGraves.getOrCreate(player.getUuid(), worldIndex).add(grave.getPos().asLong());
+            }
+        }
+    }
 
-        for (ServerPlayerEntity player : world.getPlayers()) {
-            boolean isBedrock = isFloodgateBedrock(player);
-            Map<BlockPos, HoloInfo> byPos = ACTIVE.computeIfAbsent(player.getUuid(), k -> new ConcurrentHashMap<>());
-            HoloInfo existing = byPos.get(pos);
-
-            double distSq = player.squaredDistanceTo(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
-            boolean inRange = distSq <= MAX_DISTANCE_SQ;
-            boolean hasSight = !isBedrock || distSq <= GRACE_DISTANCE_SQ || hasLineOfSight(player, pos)
-                    || isViewingGraveUi(player);
-            long now = System.currentTimeMillis();
-
-            if (!isBedrock || !inRange || !hasSight) {
-                if (existing != null && now - existing.lastSeenMs() > HIDE_DELAY_MS) {
-                    destroy(player, existing.textEntityId());
-                    if (existing.itemFoxId() != -1) {
-                        destroy(player, existing.itemFoxId());
-                    }
-                    byPos.remove(pos);
+    /**
+     * Rebuilds the overlays of a player that respawned. When the world stayed the same the client
+     * may still hold the old overlay entities, so they are removed and every watched grave is
+     * checked again; otherwise the client starts from scratch and the state is just dropped.
+     */
+    private static void onRespawn(ServerPlayerEntity oldPlayer, ServerPlayerEntity newPlayer) {
+        if (oldPlayer.getEntityWorld() != newPlayer.getEntityWorld()) {
+            clearPlayer(newPlayer.getUuid());
+            return;
+        }
+        OverlayStateStore.Viewer state = OverlayStateStore.get(newPlayer.getUuid());
+        if (state != null) {
+            ServerWorld world = (ServerWorld) newPlayer.getEntityWorld();
+            int slot = 0;
+            while (slot < state.capacity()) {
+                if (state.isUsed(slot)) {
+                    removeOverlay(newPlayer, world, state, slot);
+                } else {
+                    slot++;
                 }
+            }
+        }
+        WatchedGraves.Watch watch = WatchedGraves.get(newPlayer.getUuid());
+        if (watch != null) {
+            watch.markAll();
+        }
+    }
+
+    /**
+     * Called after the config was reloaded. Every watched grave is checked again so new distances
+     * and tiers apply right away.
+     */
+    public static void onSettingsChanged() {
+        settings = GeyserConfig.overlay();
+        WatchedGraves.markAllDirty();
+    }
+
+    /**
+     * Called for every block state change in a server world.
+     */
+    public static void onBlockChanged(ServerWorld world, BlockPos pos) {
+        VisibilityCache.onBlockChanged(world, pos);
+    }
+
+    public static long visibilityCacheHits() {
+        return VisibilityCache.hits();
+    }
+
+    public static long visibilityCacheMisses() {
+        return VisibilityCache.misses();
+    }
+
+    /**
+     * Grave updates pushed to a later tick because a viewer's packet budget or the tick budget ran out.
+     */
+    public static long deferredUpdates() {
+        return deferredUpdates;
+    }
+
+    /**
+     * Times a viewer hit its per-tick packet budget, or the tick budget ran out while serving it.
+     */
+    public static long throttledViewerTicks() {
+        return throttledViewerTicks;
+    }
+
+    public static int overlayCount() {
+        return OverlayStateStore.overlayCount();
+    }
+
+    /**
+     * Approximate heap held by the overlay state of all viewers.
+     */
+    public static long stateFootprintBytes() {
+        return OverlayStateStore.footprintBytes();
+    }
+
+    public static void register() {
+        ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((blockEntity, world) -> {
+            if (blockEntity instanceof GraveBlockEntity grave) {
+                onGraveLoaded(world, grave);
+            }
+        });
+        ServerBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register((blockEntity, world) -> {
+            if (blockEntity instanceof GraveBlockEntity grave) {
+                GraveIndex.remove(world, grave);
+                GraveRenderCache.remove(world, grave.getPos());
+            }
+        });
+        ServerWorldEvents.UNLOAD.register((server, world) -> {
+            GraveIndex.clear(world);
+            VisibilityCache.clear(world);
+            GraveRenderCache.clear(world);
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            GraveIndex.clearAll();
+            VisibilityCache.clearAll();
+            GraveRenderCache.clearAll();
+            OverlayEntityTemplates.clear();
+            OverlayPacketCollector.clearAll();
+            OverlayStateStore.clearAll();
+            SkullTracker.clearAll();
+            WatchedGraves.clearAll();
+        });
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
+            if (BedrockPlayerRegistry.isBedrock(newPlayer)) {
+                onRespawn(oldPlayer, newPlayer);
+            }
+        });
+        // The client throws away the old world, entities and skulls included
+        ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) ->
+                clearPlayer(player.getUuid()));
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> OverlayEntityTemplates.build(server.getOverworld()));
+        ServerTickEvents.END_WORLD_TICK.register(BedrockOverlayManager::tickWorld);
+        // Registered after the delayed task queue, so delayed equips go out in the same bundle
+        ServerTickEvents.END_SERVER_TICK.register(server -> OverlayPacketCollector.flush());
+    }
+
+    /**
+     * Per-world overlay pass, run every tick. Graves are only looked at when something happened:
+     * their chunk reached a Bedrock player, the player moved into another block, or a block change
+     * touched the line of sight. Shown overlays are refreshed on their own phase, every period
+     * when near so countdowns keep ticking and less often further away. Java players and idle
+     * graves cost nothing.
+     */
+    public static void tickWorld(ServerWorld world) {
+        settings = GeyserConfig.overlay();
+        long tick = world.getTime();
+        GraveIndex index = GraveIndex.get(world);
+        int worldIndex = OverlayStateStore.worldIndex(world);
+        long now = System.currentTimeMillis();
+        long start = System.nanoTime();
+
+        PASS_VIEWERS.clear();
+        PASS_WATCHES.clear();
+        for (ServerPlayerEntity player : world.getPlayers()) {
+            // Java players never get an overlay, skip before touching any state
+            if (!BedrockPlayerRegistry.isBedrock(player)) {
                 continue;
             }
+            WatchedGraves.Watch watch = WatchedGraves.get(player.getUuid());
+            if (watch != null && watch.worldIndex() != worldIndex) {
+                watch = null;
+            }
+            if (watch == null && OverlayStateStore.get(player.getUuid()) == null) {
+                continue;
+            }
+            PASS_VIEWERS.add(player);
+            PASS_WATCHES.add(watch);
+        }
+        // Passes without any Bedrock overlay work are not recorded, they would only flatten the histogram
+        if (PASS_VIEWERS.isEmpty()) {
+            return;
+        }
 
-            hasBedrockViewer = true;
-            Text text = buildText(world, grave, pos);
-            boolean needHead = existing == null || now - existing.lastHeadSendMs() > 1000;
-            if (needHead) {
-                sendHead(player, world, pos, grave);
+        VisibilityCache visibility = VisibilityCache.get(world);
+        int viewers = PASS_VIEWERS.size();
+        GeyserMetrics.OVERLAY_VIEWERS.add(viewers);
+        for (int i = 0; i < viewers; i++) {
+            ServerPlayerEntity player = PASS_VIEWERS.get(i);
+            WatchedGraves.Watch watch = PASS_WATCHES.get(i);
+            if (watch != null && watch.moveTo(player.getBlockPos().asLong())) {
+                watch.markNear(player.getX(), player.getY(), player.getZ(), settings.maxDistance);
             }
+            collectWork(player, worldIndex, watch, OverlayStateStore.get(player.getUuid()), tick);
+            processWork(player, world, worldIndex, index, watch, visibility, viewers, tick, now, start);
+        }
+        PASS_VIEWERS.clear();
+        PASS_WATCHES.clear();
 
-            if (existing == null) {
-                int textId = spawnText(player, pos, text);
-                int itemFoxId = spawnFox(player, pos, displayItem);
-                byPos.put(pos, new HoloInfo(textId, itemFoxId, worldId, now, now, now));
-            } else {
-                boolean needsRespawn = now - existing.lastSpawnMs() > RESPAWN_INTERVAL_MS;
-                int textId = existing.textEntityId();
-                int itemFoxId = existing.itemFoxId();
-                if (needsRespawn) {
-                    destroy(player, textId);
-                    if (itemFoxId != -1) {
-                        destroy(player, itemFoxId);
-                    }
-                    textId = spawnText(player, pos, text);
-                    itemFoxId = spawnFox(player, pos, displayItem);
-                } else {
-                    updateText(player, textId, text);
-                    if (itemFoxId == -1) {
-                        itemFoxId = spawnFox(player, pos, displayItem);
-                    } else {
-                        sendEquipAndHide(player, itemFoxId, displayItem);
+        visibility.sweep(tick);
+        GeyserMetrics.overlayPass(world.getRegistryKey()).record(System.nanoTime() - start);
+    }
+
+    private static boolean overBudget(long start) {
+        return settings.workBudgetMicros > 0 && System.nanoTime() - start > settings.workBudgetMicros * 1000;
+    }
+
+    /**
+     * Queues the player's dirty graves and the overlays due for a refresh, closest and looked-at first.
+     */
+    private static void collectWork(ServerPlayerEntity player, int worldIndex, WatchedGraves.Watch watch,
+                                    OverlayStateStore.Viewer state, long tick) {
+        WORK.clear();
+        Vec3d eye = player.getEyePos();
+        Vec3d look = player.getRotationVec(1.0f);
+        if (watch != null) {
+            for (LongIterator it = watch.dirty(); it.hasNext(); ) {
+                long pos = it.nextLong();
+                WORK.add(pos, priority(eye, look, pos));
+            }
+        }
+        if (state != null) {
+            for (int slot = 0; slot < state.capacity(); slot++) {
+                if (!state.isUsed(slot) || state.world(slot) != worldIndex) {
+                    continue;
+                }
+                long pos = state.pos(slot);
+                if (isRefreshDue(pos, state.tier(slot), tick) && (watch == null || !watch.isDirty(pos))) {
+                    WORK.add(pos, priority(eye, look, pos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Works through the queue until the player's packet budget for this tick is used up. What is
+     * left stays dirty and comes first again next tick, unless closer work shows up meanwhile.
+     */
+    private static void processWork(ServerPlayerEntity player, ServerWorld world, int worldIndex, GraveIndex index,
+                                    WatchedGraves.Watch watch, VisibilityCache visibility, int viewers,
+                                    long tick, long now, long start) {
+        while (!WORK.isEmpty()) {
+            if (overBudget(start) || OverlayPacketCollector.queued(player) >= settings.maxViewerPacketsPerTick) {
+                deferredUpdates += WORK.size();
+                throttledViewerTicks++;
+                while (!WORK.isEmpty()) {
+                    long pos = WORK.poll();
+                    if (watch != null) {
+                        watch.markDirty(pos);
                     }
                 }
-                byPos.put(pos, new HoloInfo(textId, itemFoxId, worldId, needsRespawn ? now : existing.lastSpawnMs(), now, needHead ? now : existing.lastHeadSendMs()));
+                return;
+            }
+
+            long pos = WORK.poll();
+            if (watch != null) {
+                watch.clean(pos);
+            }
+            GraveBlockEntity be = index != null ? index.graveAt(pos) : null;
+            if (be != null) {
+                OverlayUpdateEvent event = new OverlayUpdateEvent();
+                int raycastsBefore = raycastCount;
+                int packetsBefore = event.isEnabled() ? OverlayPacketCollector.queued(player) : 0;
+                event.begin();
+                boolean settled = updateViewer(player, world, worldIndex, be, visibility, tick, now);
+                event.end();
+                if (!settled && watch != null) {
+                    // Stays dirty until the grave data has loaded, the player may not move again meanwhile
+                    watch.markDirty(pos);
+                }
+                GeyserMetrics.OVERLAY_GRAVES.increment();
+                if (event.shouldCommit()) {
+                    commitUpdateEvent(event, player, world, pos, viewers, raycastCount - raycastsBefore,
+                            OverlayPacketCollector.queued(player) - packetsBefore);
+                }
+                continue;
+            }
+            // Unloaded without the chunk leaving the client, nothing to restore
+            if (watch != null) {
+                watch.remove(pos);
+            }
+            OverlayStateStore.Viewer state = OverlayStateStore.get(player.getUuid());
+            int slot = state != null ? state.find(worldIndex, pos) : -1;
+            if (slot >= 0) {
+                dropOverlay(player, state, slot);
+            }
+        }
+    }
+
+    private static void commitUpdateEvent(OverlayUpdateEvent event, ServerPlayerEntity player, ServerWorld world,
+                                          long pos, int viewers, int raycasts, int packets) {
+        event.world = world.getRegistryKey().getValue().toString();
+        event.x = BlockPos.unpackLongX(pos);
+        event.y = BlockPos.unpackLongY(pos);
+        event.z = BlockPos.unpackLongZ(pos);
+        event.viewer = player.getName().getString();
+        event.viewers = viewers;
+        event.raycasts = raycasts;
+        event.packets = packets;
+        event.commit();
+    }
+
+    /**
+     * Work priority of a grave, lower is sooner: the squared distance from the eye, scaled down
+     * when the grave is in the player's view cone.
+     */
+    private static double priority(Vec3d eye, Vec3d look, long pos) {
+        double dx = BlockPos.unpackLongX(pos) + 0.5 - eye.x;
+        double dy = BlockPos.unpackLongY(pos) + 0.5 + OFFSET_Y - eye.y;
+        double dz = BlockPos.unpackLongZ(pos) + 0.5 - eye.z;
+        double distSq = dx * dx + dy * dy + dz * dz;
+        double dot = dx * look.x + dy * look.y + dz * look.z;
+        if (dot > 0 && dot * dot >= LOOK_COS_SQ * distSq) {
+            return distSq * LOOK_PRIORITY_FACTOR;
+        }
+        return distSq;
+    }
+
+    /**
+     * Whether an overlay is refreshed this tick. Each grave has a phase within its tier's refresh
+     * period that is stable for its position, so the work is spread evenly over the ticks.
+     */
+    private static boolean isRefreshDue(long pos, byte tier, long tick) {
+        long period = (long) settings.updatePeriodTicks * settings.tierRefreshPeriods[Math.max(tier, TIER_NEAR)];
+        return Math.floorMod(HashCommon.mix(pos), period) == tick % period;
+    }
+
+    /**
+     * Detail tier for a viewer at the distance. A viewer keeps its current tier until it is
+     * the configured hysteresis past the boundary, and needs to be as far inside to enter a closer one.
+     */
+    private static byte tierFor(double distSq, byte current) {
+        double dist = Math.sqrt(distSq);
+        if (dist <= tierBoundary(settings.nearDistance, TIER_NEAR, current)) {
+            return TIER_NEAR;
+        }
+        if (dist <= tierBoundary(settings.midDistance, TIER_MID, current)) {
+            return TIER_MID;
+        }
+        return TIER_FAR;
+    }
+
+    private static double tierBoundary(double distance, byte tier, byte current) {
+        if (current == TIER_NONE) {
+            return distance;
+        }
+        return current <= tier ? distance + settings.tierHysteresis : distance - settings.tierHysteresis;
+    }
+
+    /**
+     * Spawns or refreshes the overlay of one grave for one Bedrock player.
+     *
+     * @return false if the grave's data has not loaded yet and it needs another look
+     */
+    private static boolean updateViewer(ServerPlayerEntity player, ServerWorld world, int worldIndex, GraveBlockEntity be,
+                                        VisibilityCache visibility, long tick, long now) {
+        BlockPos pos = be.getPos();
+        long posKey = pos.asLong();
+        Grave grave = be.getGrave();
+        OverlayStateStore.Viewer state = OverlayStateStore.get(player.getUuid());
+        int slot = state != null ? state.find(worldIndex, posKey) : -1;
+
+        if (grave == null || grave.isRemoved()) {
+            if (slot >= 0) {
+                removeOverlay(player, world, state, slot);
+            }
+            return grave != null;
+        }
+
+        double distSq = player.squaredDistanceTo(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+        boolean visible = distSq <= settings.maxDistanceSq()
+                && (distSq <= settings.graceDistanceSq() || isViewingGraveUi(player)
+                || visibility.hasLineOfSight(player, pos, tick, BedrockOverlayManager::raycastLineOfSight));
+        if (!visible) {
+            if (slot >= 0 && now - state.seenMs(slot) > settings.hideDelayMs) {
+                removeOverlay(player, world, state, slot);
             }
+            return true;
+        }
+
+        if (state == null) {
+            state = OverlayStateStore.getOrCreate(player.getUuid());
+        }
+
+        GraveRenderCache.Render render = GraveRenderCache.get(world, pos);
+        if (!render.isCurrent(tick)) {
+            Map<String, Text> placeholders = world.getServer() != null ? grave.getPlaceholders(world.getServer())
+                    : Map.of();
+            render.update(buildText(placeholders, grave), buildSummary(placeholders, grave), buildName(placeholders),
+                    pickItem(grave), tick);
+        }
+        sendHead(player, world, worldIndex, pos);
+
+        byte tier = tierFor(distSq, slot >= 0 ? state.tier(slot) : TIER_NONE);
+        Text text;
+        String plain;
+        if (tier == TIER_NEAR) {
+            text = render.text();
+            plain = render.plain();
+        } else if (tier == TIER_MID) {
+            text = render.summary();
+            plain = render.summaryPlain();
+        } else {
+            text = render.name();
+            plain = render.namePlain();
+        }
+
+        if (slot < 0) {
+            slot = state.insert(worldIndex, posKey);
+            state.setTextId(slot, spawnText(player, pos, text));
+            state.setText(slot, plain);
+        } else if (!plain.equals(state.text(slot))) {
+            // Countdowns often render the same string for many updates, skip the metadata packet then
+            updateText(player, state.textId(slot), text);
+            state.setText(slot, plain);
         }
 
-        if (!hasBedrockViewer) {
-            sendRealBlockStateToAll(world, pos);
+        if (tier == TIER_NEAR) {
+            if (state.foxId(slot) == -1) {
+                int foxId = spawnFox(player, pos);
+                state.setFoxId(slot, foxId);
+                state.setEquip(slot, scheduleDelayedEquip(player, foxId, render.displayItem(), settings.equipDelayTicks));
+            } else {
+                sendEquipAndHide(player, state.foxId(slot), render.displayItem());
+            }
+        } else if (state.foxId(slot) != -1) {
+            cancelEquip(state, slot);
+            destroy(player, state.foxId(slot));
+            state.setFoxId(slot, -1);
         }
+        state.setTier(slot, tier);
+        state.setSeenMs(slot, now);
+        return true;
     }
 
+    /**
+     * Removes the overlay of a grave for every player that has one, touching only those players.
+     * The grave block is going away, so the skull is only forgotten; the block change itself
+     * reaches the client as usual.
+     */
     public static void clearForWorld(ServerWorld world, BlockPos pos) {
-        Identifier worldId = world.getRegistryKey().getValue();
-        for (ServerPlayerEntity player : world.getPlayers()) {
-            Map<BlockPos, HoloInfo> byPos = ACTIVE.get(player.getUuid());
-            if (byPos == null) {
+        int worldIndex = OverlayStateStore.worldIndex(world);
+        long posKey = pos.asLong();
+        List<UUID> viewers = OverlayStateStore.viewersOf(worldIndex, posKey);
+        if (viewers == null) {
+            return;
+        }
+        // Removing a slot drops the viewer from this live list, walk it from the end
+        for (int i = viewers.size() - 1; i >= 0; i--) {
+            UUID uuid = viewers.get(i);
+            OverlayStateStore.Viewer state = OverlayStateStore.get(uuid);
+            int slot = state != null ? state.find(worldIndex, posKey) : -1;
+            if (slot < 0) {
                 continue;
             }
-            HoloInfo info = byPos.get(pos);
-            if (info != null && info.worldId().equals(worldId)) {
-                destroy(player, info.textEntityId());
-                if (info.itemFoxId() != -1) {
-                    destroy(player, info.itemFoxId());
-                }
-                byPos.remove(pos);
+            ServerPlayerEntity player = world.getServer().getPlayerManager().getPlayer(uuid);
+            if (player != null && player.getEntityWorld() == world) {
+                dropOverlay(player, state, slot);
+            } else {
+                cancelEquip(state, slot);
+                state.removeAt(slot);
             }
         }
     }
@@ -191,128 +630,122 @@ public final class BedrockOverlayManager {
         }
     }
 
-    private static void sendHead(ServerPlayerEntity player, ServerWorld world, BlockPos pos, Grave grave) {
-        BlockState headState = Blocks.SKELETON_SKULL.getDefaultState();
-        if (headState.contains(SkullBlock.ROTATION)) {
-            headState = headState.with(SkullBlock.ROTATION, world.getRandom().nextInt(16));
+    /**
+     * Turns the grave into a skull for the player. Only sent once; chunk and block resends are
+     * patched by {@link SkullTracker} afterwards.
+     */
+    private static void sendHead(ServerPlayerEntity player, ServerWorld world, int worldIndex, BlockPos pos) {
+        if (!SkullTracker.markSkull(player, worldIndex, pos)) {
+            return;
         }
-        player.networkHandler.sendPacket(new BlockUpdateS2CPacket(pos, headState));
-
-        SkullBlockEntity skull = new SkullBlockEntity(pos, headState);
-        skull.setWorld(world);
-        var update = skull.toUpdatePacket();
-        if (update != null) {
-            player.networkHandler.sendPacket(update);
+        List<Packet<? super ClientPlayPacketListener>> packets = new ArrayList<>(2);
+        SkullTracker.addSkullPackets(packets, world, pos);
+        for (Packet<? super ClientPlayPacketListener> packet : packets) {
+            OverlayPacketCollector.send(player, packet);
         }
     }
 
-    private static void sendRealBlockState(ServerPlayerEntity player, ServerWorld world, BlockPos pos) {
+    /**
+     * Gives the player the real grave block back if the client is showing the skull.
+     */
+    private static void restoreRealBlock(ServerPlayerEntity player, ServerWorld world, int worldIndex, BlockPos pos) {
+        // Unmarked first, otherwise the outgoing rewrite would turn it back into a skull
+        if (!SkullTracker.unmarkSkull(player, worldIndex, pos.asLong())) {
+            return;
+        }
         BlockState realState = world.getBlockState(pos);
-        player.networkHandler.sendPacket(new BlockUpdateS2CPacket(pos, realState));
+        OverlayPacketCollector.send(player, new BlockUpdateS2CPacket(pos, realState));
         var be = world.getBlockEntity(pos);
         if (be != null) {
             var update = be.toUpdatePacket();
             if (update != null) {
-                player.networkHandler.sendPacket(update);
+                OverlayPacketCollector.send(player, update);
             }
         }
     }
 
-    private static void destroy(ServerPlayerEntity player, int entityId) {
-        player.networkHandler.sendPacket(new EntitiesDestroyS2CPacket(entityId));
+    private static void removeOverlay(ServerPlayerEntity player, ServerWorld world, OverlayStateStore.Viewer state, int slot) {
+        destroyOverlay(player, state, slot);
+        restoreRealBlock(player, world, state.world(slot), BlockPos.fromLong(state.pos(slot)));
+        state.removeAt(slot);
     }
 
-    private static void sendRealBlockStateToAll(ServerWorld world, BlockPos pos) {
-        for (ServerPlayerEntity player : world.getPlayers()) {
-            if (isFloodgateBedrock(player)) {
-                sendRealBlockState(player, world, pos);
-            }
+    /**
+     * Removes the overlay and forgets the skull without sending the real block, for when the
+     * client is about to get, or already dropped, the block anyway.
+     */
+    private static void dropOverlay(ServerPlayerEntity player, OverlayStateStore.Viewer state, int slot) {
+        destroyOverlay(player, state, slot);
+        SkullTracker.unmarkSkull(player, state.world(slot), state.pos(slot));
+        state.removeAt(slot);
+    }
+
+    private static void destroyOverlay(ServerPlayerEntity player, OverlayStateStore.Viewer state, int slot) {
+        cancelEquip(state, slot);
+        destroy(player, state.textId(slot));
+        if (state.foxId(slot) != -1) {
+            destroy(player, state.foxId(slot));
         }
     }
 
-    private static int spawnText(ServerPlayerEntity player, BlockPos pos, Text name) {
-        ArmorStandEntity stand = new ArmorStandEntity(EntityType.ARMOR_STAND, (ServerWorld) player.getEntityWorld());
-        stand.setPos(pos.getX() + 0.5, pos.getY() + OFFSET_Y + TEXT_Y_EPSILON, pos.getZ() + 0.5);
-        stand.setInvisible(true);
-        stand.setNoGravity(true);
-        forceMarker(stand, true);
-        stand.setCustomNameVisible(true);
-        stand.setCustomName(name);
-        forceSmall(stand, false);
+    private static void cancelEquip(OverlayStateStore.Viewer state, int slot) {
+        TaskHandle equip = state.equip(slot);
+        if (equip != null) {
+            equip.cancel();
+            state.setEquip(slot, null);
+        }
+    }
+
+    private static void destroy(ServerPlayerEntity player, int entityId) {
+        OverlayPacketCollector.destroy(player, entityId);
+    }
 
+    private static int spawnText(ServerPlayerEntity player, BlockPos pos, Text name) {
+        ServerWorld world = (ServerWorld) player.getEntityWorld();
         int entityId = ENTITY_IDS.getAndDecrement();
         EntitySpawnS2CPacket spawnPacket = new EntitySpawnS2CPacket(
                 entityId,
                 UUID.randomUUID(),
-                stand.getX(),
-                stand.getY(),
-                stand.getZ(),
-                stand.getPitch(),
-                stand.getYaw(),
+                pos.getX() + 0.5,
+                pos.getY() + OFFSET_Y + TEXT_Y_EPSILON,
+                pos.getZ() + 0.5,
+                0.0f,
+                0.0f,
                 EntityType.ARMOR_STAND,
                 0,
                 Vec3d.ZERO,
                 0);
-        player.networkHandler.sendPacket(spawnPacket);
-        List<DataTracker.SerializedEntry<?>> entries = stand.getDataTracker().getChangedEntries();
-        player.networkHandler
-                .sendPacket(new EntityTrackerUpdateS2CPacket(entityId, entries != null ? entries : List.of()));
+        OverlayPacketCollector.send(player, spawnPacket);
+        OverlayPacketCollector.send(player, new EntityTrackerUpdateS2CPacket(entityId, OverlayEntityTemplates.standSpawnEntries(world, name)));
         return entityId;
     }
 
     private static void updateText(ServerPlayerEntity player, int entityId, Text name) {
-        ArmorStandEntity stand = new ArmorStandEntity(EntityType.ARMOR_STAND, (ServerWorld) player.getEntityWorld());
-        stand.setInvisible(true);
-        stand.setNoGravity(true);
-        forceMarker(stand, true);
-        stand.setCustomNameVisible(true);
-        stand.setCustomName(name);
-        forceSmall(stand, false);
-        List<DataTracker.SerializedEntry<?>> entries = stand.getDataTracker().getChangedEntries();
-        player.networkHandler
-                .sendPacket(new EntityTrackerUpdateS2CPacket(entityId, entries != null ? entries : List.of()));
+        OverlayPacketCollector.send(player, new EntityTrackerUpdateS2CPacket(entityId, OverlayEntityTemplates.standNameEntries(name)));
     }
 
-    private static int spawnFox(ServerPlayerEntity player, BlockPos pos, ItemStack stack) {
-        FoxEntity fox = createBaseFox(player, pos, FOX_OFFSET_Y);
-
+    private static int spawnFox(ServerPlayerEntity player, BlockPos pos) {
+        ServerWorld world = (ServerWorld) player.getEntityWorld();
         int entityId = ENTITY_IDS.getAndDecrement();
         EntitySpawnS2CPacket spawnPacket = new EntitySpawnS2CPacket(
                 entityId,
                 UUID.randomUUID(),
-                fox.getX(),
-                fox.getY(),
-                fox.getZ(),
-                fox.getPitch(),
-                fox.getYaw(),
+                pos.getX() + 0.5 + FOX_OFFSET_X,
+                pos.getY() + FOX_OFFSET_Y,
+                pos.getZ() + 0.5 + FOX_OFFSET_Z,
+                0.0f,
+                0.0f,
                 EntityType.FOX,
                 0,
                 Vec3d.ZERO,
                 0);
-        player.networkHandler.sendPacket(spawnPacket);
-        sendFoxMeta(player, entityId, fox);
-
-        scheduleDelayedEquip(player, entityId, stack, 2);
+        OverlayPacketCollector.send(player, spawnPacket);
+        OverlayPacketCollector.send(player, new EntityTrackerUpdateS2CPacket(entityId, OverlayEntityTemplates.foxSpawnEntries(world)));
         return entityId;
     }
 
-    private static void scheduleDelayedEquip(ServerPlayerEntity player, int entityId, ItemStack stack, int ticksDelay) {
-        if (ticksDelay <= 0) {
-            sendEquipAndHide(player, entityId, stack);
-            return;
-        }
-        BedrockGravesAddon.DO_ON_NEXT_TICK.add(new Runnable() {
-            int remaining = ticksDelay;
-
-            @Override
-            public void run() {
-                if (--remaining <= 0) {
-                    sendEquipAndHide(player, entityId, stack);
-                } else {
-                    BedrockGravesAddon.DO_ON_NEXT_TICK.add(this);
-                }
-            }
-        });
+    private static TaskHandle scheduleDelayedEquip(ServerPlayerEntity player, int entityId, ItemStack stack, int ticksDelay) {
+        return BedrockGravesAddon.SCHEDULER.schedule(ticksDelay, () -> sendEquipAndHide(player, entityId, stack));
     }
 
     private static void sendEquipAndHide(ServerPlayerEntity player, int entityId, ItemStack stack) {
@@ -320,52 +753,30 @@ public final class BedrockOverlayManager {
             ItemStack send = stack.isEmpty() ? new ItemStack(Items.COMPASS) : stack.copyWithCount(1);
             var equipmentPacket = new EntityEquipmentUpdateS2CPacket(entityId,
                     List.of(new com.mojang.datafixers.util.Pair<>(EquipmentSlot.MAINHAND, send)));
-            player.networkHandler.sendPacket(equipmentPacket);
+            OverlayPacketCollector.send(player, equipmentPacket);
 
             StatusEffectInstance invis = new StatusEffectInstance(StatusEffects.INVISIBILITY, Integer.MAX_VALUE, 0, true, false, false);
-            player.networkHandler.sendPacket(new EntityStatusEffectS2CPacket(entityId, invis, true));
+            OverlayPacketCollector.send(player, new EntityStatusEffectS2CPacket(entityId, invis, true));
         } catch (Exception e) {
             BedrockGravesAddon.LOGGER.debug("Failed to equip/hide fox: {}", e.toString());
         }
     }
 
-    private static FoxEntity createBaseFox(ServerPlayerEntity player, BlockPos pos, double yOffset) {
-        FoxEntity fox = new FoxEntity(EntityType.FOX, (ServerWorld) player.getEntityWorld());
-        fox.setBaby(true);
-        fox.setNoGravity(true);
-        fox.setAiDisabled(true);
-        fox.setInvulnerable(true);
-        fox.setSitting(true);
-        fox.setSilent(true);
-        fox.setInvisible(true);
-        fox.setBreedingAge(-24000);
-        fox.refreshPositionAndAngles(
-                pos.getX() + 0.5 + FOX_OFFSET_X,
-                pos.getY() + yOffset,
-                pos.getZ() + 0.5 + FOX_OFFSET_Z,
-                0.0f,
-                0.0f);
-        return fox;
+    private static Text buildName(Map<String, Text> placeholders) {
+        String playerName = placeholders.getOrDefault("player", Text.literal("<Unknown>")).getString();
+        return Text.literal("Grave of " + playerName).formatted(Formatting.YELLOW);
     }
 
-    private static void sendFoxMeta(ServerPlayerEntity player, int entityId, FoxEntity fox) {
-        var entries = fox.getDataTracker().getChangedEntries();
-        player.networkHandler.sendPacket(new EntityTrackerUpdateS2CPacket(entityId, entries != null ? entries : List.of()));
+    private static Text buildSummary(Map<String, Text> placeholders, Grave grave) {
+        String playerName = placeholders.getOrDefault("player", Text.literal("<Unknown>")).getString();
+        String death = placeholders.getOrDefault("death_cause", Text.empty()).getString();
+        return buildSummary(playerName, death, countItems(grave), grave.getXp());
     }
 
-    private static Text buildText(ServerWorld world, Grave grave, BlockPos pos) {
-        Map<String, Text> placeholders = world.getServer() != null ? grave.getPlaceholders(world.getServer())
-                : Map.of();
+    private static Text buildText(Map<String, Text> placeholders, Grave grave) {
         String playerName = placeholders.getOrDefault("player", Text.literal("<Unknown>")).getString();
         String death = placeholders.getOrDefault("death_cause", Text.empty()).getString();
 
-        int itemCount = 0;
-        for (var stack : grave.getItems()) {
-            if (!stack.isEmpty()) {
-                itemCount++;
-            }
-        }
-
         var config = ConfigManager.getConfig();
         long protectionTime = GraveManager.INSTANCE.getProtectionTime();
         long breakingTime = GraveManager.INSTANCE.getBreakingTime();
@@ -379,98 +790,72 @@ public final class BedrockOverlayManager {
                         Math.max(0, grave.getTimeLeft((int) breakingTime, config.protection.useRealTime)))
                 : config.texts.infinityText;
 
-        Text line1 = Text.literal("Grave of " + playerName).formatted(Formatting.YELLOW);
-        Text line1b = Text.literal(death).formatted(Formatting.YELLOW);
-        Text line2 = Text.literal("Items: " + itemCount + "  XP: " + grave.getXp()).formatted(Formatting.WHITE);
+        return buildText(playerName, death, countItems(grave), grave.getXp(), protection, breaking);
+    }
+
+    private static int countItems(Grave grave) {
+        int itemCount = 0;
+        for (var stack : grave.getItems()) {
+            if (!stack.isEmpty()) {
+                itemCount++;
+            }
+        }
+        return itemCount;
+    }
+
+    static Text buildText(String playerName, String death, int itemCount, int xp, String protection, String breaking) {
         Text line3 = Text.literal("Protected for: ").formatted(Formatting.BLUE)
                 .append(Text.literal(protection).formatted(Formatting.WHITE));
         Text line4 = Text.literal("Breaks in: ").formatted(Formatting.RED)
                 .append(Text.literal(breaking).formatted(Formatting.WHITE));
 
+        return buildSummary(playerName, death, itemCount, xp)
+                .append(Text.literal("\n"))
+                .append(line3)
+                .append(Text.literal("\n"))
+                .append(line4);
+    }
+
+    /**
+     * Name, death cause, items and XP, without the countdown lines.
+     */
+    private static MutableText buildSummary(String playerName, String death, int itemCount, int xp) {
+        Text line1 = Text.literal("Grave of " + playerName).formatted(Formatting.YELLOW);
+        Text line1b = Text.literal(death).formatted(Formatting.YELLOW);
+        Text line2 = Text.literal("Items: " + itemCount + "  XP: " + xp).formatted(Formatting.WHITE);
+
         return Text.empty()
                 .append(line1)
                 .append(Text.literal("\n"))
                 .append(line1b)
                 .append(Text.literal("\n"))
-                .append(line2)
-                .append(Text.literal("\n"))
-                .append(line3)
-                .append(Text.literal("\n"))
-                .append(line4);
+                .append(line2);
     }
 
-    private static boolean hasLineOfSight(ServerPlayerEntity player, BlockPos pos) {
+    private static boolean raycastLineOfSight(ServerPlayerEntity player, BlockPos pos) {
         Vec3d eye = player.getEyePos();
-        Vec3d targetBase = Vec3d.ofCenter(pos).add(0, OFFSET_Y, 0);
-        Vec3d[] targets = new Vec3d[] {
-                targetBase,
-                targetBase.add(0.4, 0, 0.4),
-                targetBase.add(-0.4, 0, -0.4),
-                targetBase.add(0, 0.5, 0),
-                targetBase.add(0, -0.3, 0)
-        };
-
-        for (Vec3d target : targets) {
+        double baseX = pos.getX() + 0.5;
+        double baseY = pos.getY() + 0.5 + OFFSET_Y;
+        double baseZ = pos.getZ() + 0.5;
+        ServerWorld world = (ServerWorld) player.getEntityWorld();
+
+        for (double[] offset : settings.losSampleOffsets) {
+            Vec3d target = new Vec3d(baseX + offset[0], baseY + offset[1], baseZ + offset[2]);
             RaycastContext ctx = new RaycastContext(
                     eye,
                     target,
                     RaycastContext.ShapeType.VISUAL,
                     RaycastContext.FluidHandling.NONE,
                     player);
-            if (((ServerWorld) player.getEntityWorld()).raycast(ctx).getType() == HitResult.Type.MISS) {
+            GeyserMetrics.OVERLAY_RAYCASTS.increment();
+            raycastCount++;
+            if (world.raycast(ctx).getType() == HitResult.Type.MISS) {
                 return true;
             }
         }
         return false;
     }
 
-    private static void forceMarker(ArmorStandEntity stand, boolean value) {
-        try {
-            Method m = ArmorStandEntity.class.getDeclaredMethod("setMarker", boolean.class);
-            m.setAccessible(true);
-            m.invoke(stand, value);
-        } catch (Exception e) {
-            BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to set armor stand marker flag: {}", e.getMessage());
-        }
-    }
-
-    private static void forceSmall(ArmorStandEntity stand, boolean value) {
-        try {
-            Method m = ArmorStandEntity.class.getDeclaredMethod("setSmall", boolean.class);
-            m.setAccessible(true);
-            m.invoke(stand, value);
-        } catch (Exception e) {
-            BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to set armor stand small flag: {}", e.getMessage());
-        }
-    }
-
-    private static boolean isFloodgateBedrock(ServerPlayerEntity player) {
-        if (!floodgateChecked) {
-            floodgateChecked = true;
-            try {
-                Class<?> apiClass = Class.forName("org.geysermc.floodgate.api.FloodgateApi");
-                Method getInstance = apiClass.getMethod("getInstance");
-                floodgateApiInstance = getInstance.invoke(null);
-                floodgateCheckMethod = apiClass.getMethod("isFloodgatePlayer", UUID.class);
-                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Floodgate detected, enabling Bedrock overlays");
-            } catch (Exception e) {
-                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Floodgate not detected, Bedrock overlays disabled ({})",
-                        e.toString());
-            }
-        }
-
-        if (floodgateApiInstance == null || floodgateCheckMethod == null) {
-            return false;
-        }
-
-        try {
-            return (boolean) floodgateCheckMethod.invoke(floodgateApiInstance, player.getUuid());
-        } catch (Exception e) {
-            BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to query Floodgate: {}", e.toString());
-            return false;
-        }
-    }
-
     private static ItemStack pickItem(Grave grave) {
         for (var p : grave.getItems()) {
             if (!p.isEmpty() && !p.stack().isEmpty()) {
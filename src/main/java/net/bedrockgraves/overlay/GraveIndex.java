@@ -0,0 +1,104 @@
+package net.bedrockgraves.overlay;
+
+import eu.pb4.graves.registry.GraveBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-world index of loaded grave block entities, bucketed by chunk.
+ * Filled from block entity load/unload events so the overlay pass can find the graves of a chunk
+ * sent to a Bedrock player without scanning its block entities.
+ *
+ * Only touched from the server thread.
+ */
+final class GraveIndex {
+    private static final Map<RegistryKey<World>, GraveIndex> WORLDS = new HashMap<>();
+
+    private final Long2ObjectOpenHashMap<List<GraveBlockEntity>> byChunk = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    private GraveIndex() {
+    }
+
+    static GraveIndex get(ServerWorld world) {
+        return WORLDS.get(world.getRegistryKey());
+    }
+
+    static void add(ServerWorld world, GraveBlockEntity grave) {
+        WORLDS.computeIfAbsent(world.getRegistryKey(), k -> new GraveIndex()).addGrave(grave);
+    }
+
+    static void remove(ServerWorld world, GraveBlockEntity grave) {
+        GraveIndex index = WORLDS.get(world.getRegistryKey());
+        if (index != null) {
+            index.removeGrave(grave);
+            if (index.size == 0) {
+                WORLDS.remove(world.getRegistryKey());
+            }
+        }
+    }
+
+    static void clear(ServerWorld world) {
+        WORLDS.remove(world.getRegistryKey());
+    }
+
+    static void clearAll() {
+        WORLDS.clear();
+    }
+
+    /**
+     * Graves in the chunk, or an empty list.
+     */
+    List<GraveBlockEntity> inChunk(int chunkX, int chunkZ) {
+        List<GraveBlockEntity> graves = this.byChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+        return graves != null ? graves : List.of();
+    }
+
+    /**
+     * The loaded grave at the position, or null. Never loads chunks.
+     */
+    GraveBlockEntity graveAt(long pos) {
+        List<GraveBlockEntity> graves = this.byChunk.get(ChunkPos.toLong(BlockPos.unpackLongX(pos) >> 4, BlockPos.unpackLongZ(pos) >> 4));
+        if (graves != null) {
+            for (int i = 0, size = graves.size(); i < size; i++) {
+                GraveBlockEntity grave = graves.get(i);
+                if (grave.getPos().asLong() == pos) {
+                    return grave;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void addGrave(GraveBlockEntity grave) {
+        List<GraveBlockEntity> graves = this.byChunk.computeIfAbsent(chunkKey(grave.getPos()), k -> new ArrayList<>(2));
+        if (!graves.contains(grave)) {
+            graves.add(grave);
+            this.size++;
+        }
+    }
+
+    private void removeGrave(GraveBlockEntity grave) {
+        long key = chunkKey(grave.getPos());
+        List<GraveBlockEntity> graves = this.byChunk.get(key);
+        if (graves != null && graves.remove(grave)) {
+            this.size--;
+            if (graves.isEmpty()) {
+                this.byChunk.remove(key);
+            }
+        }
+    }
+
+    private static long chunkKey(BlockPos pos) {
+        return ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+    }
+}
@@ -0,0 +1,112 @@
+package net.bedrockgraves.overlay;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hologram content of each grave, rendered at most once per overlay pass and shared by all viewers.
+ *
+ * Only touched from the server thread.
+ */
+final class GraveRenderCache {
+    private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Render>> WORLDS = new HashMap<>();
+
+    private GraveRenderCache() {
+    }
+
+    static Render get(ServerWorld world, BlockPos pos) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), k -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(pos.asLong(), k -> new Render());
+    }
+
+    static void remove(ServerWorld world, BlockPos pos) {
+        Long2ObjectOpenHashMap<Render> renders = WORLDS.get(world.getRegistryKey());
+        if (renders != null) {
+            renders.remove(pos.asLong());
+        }
+    }
+
+    static void clear(ServerWorld world) {
+        WORLDS.remove(world.getRegistryKey());
+    }
+
+    static void clearAll() {
+        WORLDS.clear();
+    }
+
+    static final class Render {
+        private Text text;
+        private String plain;
+        private Text summary;
+        private String summaryPlain;
+        private Text name;
+        private String namePlain;
+        private ItemStack displayItem = ItemStack.EMPTY;
+        private long tick = Long.MIN_VALUE;
+
+        private Render() {
+        }
+
+        boolean isCurrent(long tick) {
+            return this.tick == tick;
+        }
+
+        void update(Text text, Text summary, Text name, ItemStack displayItem, long tick) {
+            this.plain = keep(this.plain, text.getString());
+            this.summaryPlain = keep(this.summaryPlain, summary.getString());
+            this.namePlain = keep(this.namePlain, name.getString());
+            this.text = text;
+            this.summary = summary;
+            this.name = name;
+            this.displayItem = displayItem;
+            this.tick = tick;
+        }
+
+        Text text() {
+            return this.text;
+        }
+
+        String plain() {
+            return this.plain;
+        }
+
+        /**
+         * The text without the countdown lines, used for mid-distance viewers.
+         */
+        Text summary() {
+            return this.summary;
+        }
+
+        String summaryPlain() {
+            return this.summaryPlain;
+        }
+
+        /**
+         * One-line label used for far viewers.
+         */
+        Text name() {
+            return this.name;
+        }
+
+        String namePlain() {
+            return this.namePlain;
+        }
+
+        ItemStack displayItem() {
+            return this.displayItem;
+        }
+
+        // Keep the old string instance when nothing changed, so the viewers' equals checks end at the identity test
+        private static String keep(String previous, String current) {
+            return current.equals(previous) ? previous : current;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package net.bedrockgraves.overlay;
+
+import net.bedrockgraves.mixin.ArmorStandEntityInvoker;
+import net.bedrockgraves.mixin.EntityAccessor;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.data.DataTracker;
+import net.minecraft.entity.data.TrackedData;
+import net.minecraft.entity.decoration.ArmorStandEntity;
+import net.minecraft.entity.passive.FoxEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Constant tracked-data entries for the fake overlay entities.
+ *
+ * A hologram armor stand and an item fox are configured once, their changed entries are captured,
+ * and every packet afterwards only adds the per-grave custom name on top.
+ *
+ * Only touched from the server thread.
+ */
+final class OverlayEntityTemplates {
+    private static List<DataTracker.SerializedEntry<?>> standEntries;
+    private static List<DataTracker.SerializedEntry<?>> foxEntries;
+
+    private OverlayEntityTemplates() {
+    }
+
+    /**
+     * Builds the templates from throwaway entities in the given world. Safe to call again.
+     */
+    static void build(ServerWorld world) {
+        ArmorStandEntity stand = new ArmorStandEntity(EntityType.ARMOR_STAND, world);
+        stand.setInvisible(true);
+        stand.setNoGravity(true);
+        ((ArmorStandEntityInvoker) stand).bedrockgraves$setMarker(true);
+        ((ArmorStandEntityInvoker) stand).bedrockgraves$setSmall(false);
+        stand.setCustomNameVisible(true);
+
+        int customNameId = customNameData().id();
+        List<DataTracker.SerializedEntry<?>> standList = new ArrayList<>();
+        for (DataTracker.SerializedEntry<?> entry : changedEntries(stand.getDataTracker())) {
+            if (entry.id() != customNameId) {
+                standList.add(entry);
+            }
+        }
+
+        FoxEntity fox = new FoxEntity(EntityType.FOX, world);
+        fox.setBaby(true);
+        fox.setNoGravity(true);
+        fox.setAiDisabled(true);
+        fox.setInvulnerable(true);
+        fox.setSitting(true);
+        fox.setSilent(true);
+        fox.setInvisible(true);
+        fox.setBreedingAge(-24000);
+
+        standEntries = List.copyOf(standList);
+        foxEntries = List.copyOf(changedEntries(fox.getDataTracker()));
+    }
+
+    static void clear() {
+        standEntries = null;
+        foxEntries = null;
+    }
+
+    /**
+     * Full entry list for a freshly spawned hologram stand.
+     */
+    static List<DataTracker.SerializedEntry<?>> standSpawnEntries(ServerWorld world, Text name) {
+        ensureBuilt(world);
+        List<DataTracker.SerializedEntry<?>> entries = new ArrayList<>(standEntries.size() + 1);
+        entries.addAll(standEntries);
+        entries.add(nameEntry(name));
+        return entries;
+    }
+
+    /**
+     * Entry list for a text update on an already spawned stand, everything else is unchanged.
+     */
+    static List<DataTracker.SerializedEntry<?>> standNameEntries(Text name) {
+        return List.of(nameEntry(name));
+    }
+
+    static List<DataTracker.SerializedEntry<?>> foxSpawnEntries(ServerWorld world) {
+        ensureBuilt(world);
+        return foxEntries;
+    }
+
+    private static void ensureBuilt(ServerWorld world) {
+        if (standEntries == null || foxEntries == null) {
+            build(world);
+        }
+    }
+
+    private static DataTracker.SerializedEntry<Optional<Text>> nameEntry(Text name) {
+        return DataTracker.SerializedEntry.of(customNameData(), Optional.of(name));
+    }
+
+    private static TrackedData<Optional<Text>> customNameData() {
+        return EntityAccessor.bedrockgraves$getCustomNameData();
+    }
+
+    private static List<DataTracker.SerializedEntry<?>> changedEntries(DataTracker tracker) {
+        List<DataTracker.SerializedEntry<?>> entries = tracker.getChangedEntries();
+        return entries != null ? entries : List.of();
+    }
+}
@@ -0,0 +1,127 @@
+package net.bedrockgraves.overlay;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.bedrockgraves.metrics.GeyserMetrics;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.BundleS2CPacket;
+import net.minecraft.network.packet.s2c.play.EntitiesDestroyS2CPacket;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects the overlay packets for each viewer during a tick and sends them as one bundle at the end of it,
+ * so Geyser applies the whole change at once instead of showing half-spawned holograms.
+ * Consecutive entity removals are merged into one destroy packet in their place; packets are never
+ * reordered, so an entity spawned and removed within the same tick stays removed.
+ *
+ * Only touched from the server thread.
+ */
+final class OverlayPacketCollector {
+    // Vanilla clients reject bundles with more packets than this
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    private static final Map<UUID, Batch> BATCHES = new HashMap<>();
+
+    private OverlayPacketCollector() {
+    }
+
+    static void send(ServerPlayerEntity player, Packet<? super ClientPlayPacketListener> packet) {
+        Batch batch = batch(player);
+        batch.closeDestroy();
+        batch.packets.add(packet);
+    }
+
+    static void destroy(ServerPlayerEntity player, int entityId) {
+        batch(player).destroyIds.add(entityId);
+    }
+
+    /**
+     * Packets collected for the viewer so far this tick, each merged destroy counting as one.
+     */
+    static int queued(ServerPlayerEntity player) {
+        Batch batch = BATCHES.get(player.getUuid());
+        if (batch == null) {
+            return 0;
+        }
+        return batch.packets.size() + (batch.destroyIds.isEmpty() ? 0 : 1);
+    }
+
+    static void forget(UUID uuid) {
+        BATCHES.remove(uuid);
+    }
+
+    static void clearAll() {
+        BATCHES.clear();
+    }
+
+    /**
+     * Sends everything collected this tick, one bundle per viewer.
+     */
+    static void flush() {
+        if (BATCHES.isEmpty()) {
+            return;
+        }
+        for (Batch batch : BATCHES.values()) {
+            if (batch.isEmpty()) {
+                continue;
+            }
+            if (batch.player.isDisconnected()) {
+                batch.clear();
+                continue;
+            }
+
+            batch.closeDestroy();
+            List<Packet<? super ClientPlayPacketListener>> packets = new ArrayList<>(batch.packets);
+            batch.clear();
+            GeyserMetrics.countOverlayBatch(packets, batch.player.getEntityWorld().getRegistryManager());
+
+            if (packets.size() == 1) {
+                batch.player.networkHandler.sendPacket(packets.get(0));
+                continue;
+            }
+            for (int from = 0; from < packets.size(); from += MAX_BUNDLE_SIZE) {
+                int to = Math.min(packets.size(), from + MAX_BUNDLE_SIZE);
+                batch.player.networkHandler.sendPacket(new BundleS2CPacket(packets.subList(from, to)));
+                GeyserMetrics.OVERLAY_BUNDLES.increment();
+            }
+        }
+    }
+
+    private static Batch batch(ServerPlayerEntity player) {
+        Batch batch = BATCHES.computeIfAbsent(player.getUuid(), k -> new Batch());
+        // The player object changes on respawn, always send to the current one
+        batch.player = player;
+        return batch;
+    }
+
+    private static final class Batch {
+        private final List<Packet<? super ClientPlayPacketListener>> packets = new ArrayList<>();
+        private final IntArrayList destroyIds = new IntArrayList();     // Removals since the last other packet
+        private ServerPlayerEntity player;
+
+        /**
+         * Ends the current run of removals, adding its merged destroy packet after the packets before it.
+         */
+        private void closeDestroy() {
+            if (!this.destroyIds.isEmpty()) {
+                this.packets.add(new EntitiesDestroyS2CPacket(this.destroyIds.toIntArray()));
+                this.destroyIds.clear();
+            }
+        }
+
+        private boolean isEmpty() {
+            return this.packets.isEmpty() && this.destroyIds.isEmpty();
+        }
+
+        private void clear() {
+            this.packets.clear();
+            this.destroyIds.clear();
+        }
+    }
+}
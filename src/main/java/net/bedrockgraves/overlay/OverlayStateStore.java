@@ -0,0 +1,357 @@
+package net.bedrockgraves.overlay;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.bedrockgraves.scheduler.TaskHandle;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Overlay state of every Bedrock viewer.
+ *
+ * Each viewer owns an open-addressing table keyed by (world index, {@code BlockPos.asLong()}) whose
+ * slots are laid out as parallel arrays, so looking up and updating an overlay allocates nothing.
+ * Tables only exist for viewers that currently have at least one overlay. A reverse index from
+ * grave to viewers is kept alongside so removing a grave only touches the players that see it.
+ *
+ * Only touched from the server thread.
+ */
+final class OverlayStateStore {
+    private static final Map<UUID, Viewer> VIEWERS = new HashMap<>();
+    private static final Object2IntOpenHashMap<RegistryKey<World>> WORLD_INDICES = new Object2IntOpenHashMap<>();
+    // Reverse index: world index -> grave position -> viewers that have an overlay for it
+    private static final Int2ObjectOpenHashMap<Long2ObjectOpenHashMap<ObjectArrayList<UUID>>> VIEWERS_BY_GRAVE = new Int2ObjectOpenHashMap<>();
+
+    private OverlayStateStore() {
+    }
+
+    /**
+     * Small stable number for a world, used as part of the slot key.
+     */
+    static int worldIndex(ServerWorld world) {
+        RegistryKey<World> key = world.getRegistryKey();
+        int index = WORLD_INDICES.getInt(key);
+        if (index == 0) {
+            index = WORLD_INDICES.size() + 1;
+            WORLD_INDICES.put(key, index);
+        }
+        return index;
+    }
+
+    static Viewer get(UUID uuid) {
+        return VIEWERS.get(uuid);
+    }
+
+    static Viewer getOrCreate(UUID uuid) {
+        return VIEWERS.computeIfAbsent(uuid, Viewer::new);
+    }
+
+    static Viewer remove(UUID uuid) {
+        Viewer viewer = VIEWERS.remove(uuid);
+        if (viewer != null) {
+            for (int slot = 0; slot < viewer.capacity(); slot++) {
+                if (viewer.used[slot]) {
+                    unlinkViewer(viewer.worlds[slot], viewer.positions[slot], uuid);
+                }
+            }
+        }
+        return viewer;
+    }
+
+    /**
+     * Viewers that currently have an overlay for the grave, or null if there are none.
+     * The list is live and shrinks as their slots are removed.
+     */
+    static List<UUID> viewersOf(int world, long pos) {
+        Long2ObjectOpenHashMap<ObjectArrayList<UUID>> byPos = VIEWERS_BY_GRAVE.get(world);
+        return byPos != null ? byPos.get(pos) : null;
+    }
+
+    static void clearAll() {
+        VIEWERS.clear();
+        WORLD_INDICES.clear();
+        VIEWERS_BY_GRAVE.clear();
+    }
+
+    private static void linkViewer(int world, long pos, UUID uuid) {
+        VIEWERS_BY_GRAVE.computeIfAbsent(world, k -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(pos, k -> new ObjectArrayList<>(2))
+                .add(uuid);
+    }
+
+    private static void unlinkViewer(int world, long pos, UUID uuid) {
+        Long2ObjectOpenHashMap<ObjectArrayList<UUID>> byPos = VIEWERS_BY_GRAVE.get(world);
+        if (byPos == null) {
+            return;
+        }
+        ObjectArrayList<UUID> viewers = byPos.get(pos);
+        if (viewers != null && viewers.remove(uuid) && viewers.isEmpty()) {
+            byPos.remove(pos);
+        }
+    }
+
+    static int viewerCount() {
+        return VIEWERS.size();
+    }
+
+    static int overlayCount() {
+        int count = 0;
+        for (Viewer viewer : VIEWERS.values()) {
+            count += viewer.size;
+        }
+        return count;
+    }
+
+    /**
+     * Approximate heap used by the slot arrays of all viewers.
+     */
+    static long footprintBytes() {
+        long bytes = 0;
+        for (Viewer viewer : VIEWERS.values()) {
+            bytes += viewer.footprintBytes();
+        }
+        return bytes;
+    }
+
+    static final class Viewer {
+        private static final int INITIAL_CAPACITY = 16;
+        // Array headers plus the viewer object itself
+        private static final int FIXED_OVERHEAD_BYTES = 10 * 16 + 32;
+        // Bytes per slot across all parallel arrays (references counted as compressed oops)
+        private static final int SLOT_BYTES = 8 + 4 + 4 + 4 + 8 + 4 + 4 + 1 + 1;
+
+        private final UUID uuid;
+        private long[] positions;
+        private int[] worlds;
+        private int[] textIds;
+        private int[] foxIds;
+        private long[] seenMs;
+        private byte[] tiers;
+        private String[] texts;
+        private TaskHandle[] equips;
+        private boolean[] used;
+        private int mask;
+        private int size;
+
+        private Viewer(UUID uuid) {
+            this.uuid = uuid;
+            this.allocate(INITIAL_CAPACITY);
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        int capacity() {
+            return this.used.length;
+        }
+
+        boolean isUsed(int slot) {
+            return this.used[slot];
+        }
+
+        /**
+         * @return the slot of the overlay, or -1
+         */
+        int find(int world, long pos) {
+            int slot = hash(world, pos) & this.mask;
+            while (this.used[slot]) {
+                if (this.positions[slot] == pos && this.worlds[slot] == world) {
+                    return slot;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Adds an empty overlay slot, or returns the existing one. Slot numbers of other entries
+         * may change when this grows the table.
+         */
+        int insert(int world, long pos) {
+            int existing = this.find(world, pos);
+            if (existing >= 0) {
+                return existing;
+            }
+            if ((this.size + 1) * 4 > this.capacity() * 3) {
+                this.grow();
+            }
+            int slot = hash(world, pos) & this.mask;
+            while (this.used[slot]) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.used[slot] = true;
+            this.positions[slot] = pos;
+            this.worlds[slot] = world;
+            this.textIds[slot] = -1;
+            this.foxIds[slot] = -1;
+            this.tiers[slot] = -1;
+            this.size++;
+            linkViewer(world, pos, this.uuid);
+            return slot;
+        }
+
+        /**
+         * Removes the slot with backward-shift deletion. A later entry may move into {@code slot},
+         * so iterating callers must look at the same slot again.
+         */
+        void removeAt(int slot) {
+            unlinkViewer(this.worlds[slot], this.positions[slot], this.uuid);
+            this.clearSlot(slot);
+            this.size--;
+
+            int hole = slot;
+            int next = (slot + 1) & this.mask;
+            while (this.used[next]) {
+                int home = hash(this.worlds[next], this.positions[next]) & this.mask;
+                // Move the entry back if its home slot is not between the hole and its current slot
+                if (((next - home) & this.mask) >= ((next - hole) & this.mask)) {
+                    this.move(next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & this.mask;
+            }
+        }
+
+        long pos(int slot) {
+            return this.positions[slot];
+        }
+
+        int world(int slot) {
+            return this.worlds[slot];
+        }
+
+        int textId(int slot) {
+            return this.textIds[slot];
+        }
+
+        void setTextId(int slot, int id) {
+            this.textIds[slot] = id;
+        }
+
+        int foxId(int slot) {
+            return this.foxIds[slot];
+        }
+
+        void setFoxId(int slot, int id) {
+            this.foxIds[slot] = id;
+        }
+
+        long seenMs(int slot) {
+            return this.seenMs[slot];
+        }
+
+        void setSeenMs(int slot, long ms) {
+            this.seenMs[slot] = ms;
+        }
+
+        /**
+         * Detail tier the overlay is shown with, -1 before the first update.
+         */
+        byte tier(int slot) {
+            return this.tiers[slot];
+        }
+
+        void setTier(int slot, byte tier) {
+            this.tiers[slot] = tier;
+        }
+
+        String text(int slot) {
+            return this.texts[slot];
+        }
+
+        void setText(int slot, String text) {
+            this.texts[slot] = text;
+        }
+
+        TaskHandle equip(int slot) {
+            return this.equips[slot];
+        }
+
+        void setEquip(int slot, TaskHandle equip) {
+            this.equips[slot] = equip;
+        }
+
+        long footprintBytes() {
+            return FIXED_OVERHEAD_BYTES + (long) this.capacity() * SLOT_BYTES;
+        }
+
+        private void allocate(int capacity) {
+            this.positions = new long[capacity];
+            this.worlds = new int[capacity];
+            this.textIds = new int[capacity];
+            this.foxIds = new int[capacity];
+            this.seenMs = new long[capacity];
+            this.tiers = new byte[capacity];
+            this.texts = new String[capacity];
+            this.equips = new TaskHandle[capacity];
+            this.used = new boolean[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private void grow() {
+            long[] oldPositions = this.positions;
+            int[] oldWorlds = this.worlds;
+            int[] oldTextIds = this.textIds;
+            int[] oldFoxIds = this.foxIds;
+            long[] oldSeenMs = this.seenMs;
+            byte[] oldTiers = this.tiers;
+            String[] oldTexts = this.texts;
+            TaskHandle[] oldEquips = this.equips;
+            boolean[] oldUsed = this.used;
+
+            this.allocate(oldUsed.length * 2);
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (!oldUsed[i]) {
+                    continue;
+                }
+                int slot = hash(oldWorlds[i], oldPositions[i]) & this.mask;
+                while (this.used[slot]) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.used[slot] = true;
+                this.positions[slot] = oldPositions[i];
+                this.worlds[slot] = oldWorlds[i];
+                this.textIds[slot] = oldTextIds[i];
+                this.foxIds[slot] = oldFoxIds[i];
+                this.seenMs[slot] = oldSeenMs[i];
+                this.tiers[slot] = oldTiers[i];
+                this.texts[slot] = oldTexts[i];
+                this.equips[slot] = oldEquips[i];
+            }
+        }
+
+        private void move(int from, int to) {
+            this.used[to] = true;
+            this.positions[to] = this.positions[from];
+            this.worlds[to] = this.worlds[from];
+            this.textIds[to] = this.textIds[from];
+            this.foxIds[to] = this.foxIds[from];
+            this.seenMs[to] = this.seenMs[from];
+            this.tiers[to] = this.tiers[from];
+            this.texts[to] = this.texts[from];
+            this.equips[to] = this.equips[from];
+            this.clearSlot(from);
+        }
+
+        private void clearSlot(int slot) {
+            this.used[slot] = false;
+            this.texts[slot] = null;
+            this.equips[slot] = null;
+            this.seenMs[slot] = 0;
+        }
+
+        private static int hash(int world, long pos) {
+            return (int) HashCommon.mix(pos + world * 0x9E3779B97F4A7C15L);
+        }
+    }
+}
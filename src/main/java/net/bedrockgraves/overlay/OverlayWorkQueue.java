@@ -0,0 +1,74 @@
+package net.bedrockgraves.overlay;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of grave positions keyed by priority, lower values first. Reused as scratch space
+ * for the overlay work of one viewer at a time, so it allocates only when it has to grow.
+ *
+ * Only touched from the server thread.
+ */
+final class OverlayWorkQueue {
+    private long[] positions = new long[16];
+    private double[] priorities = new double[16];
+    private int size;
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    void add(long pos, double priority) {
+        if (this.size == this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, this.size * 2);
+            this.priorities = Arrays.copyOf(this.priorities, this.size * 2);
+        }
+        int i = this.size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (this.priorities[parent] <= priority) {
+                break;
+            }
+            this.positions[i] = this.positions[parent];
+            this.priorities[i] = this.priorities[parent];
+            i = parent;
+        }
+        this.positions[i] = pos;
+        this.priorities[i] = priority;
+    }
+
+    /**
+     * Removes and returns the position with the lowest priority value. The queue must not be empty.
+     */
+    long poll() {
+        long result = this.positions[0];
+        int last = --this.size;
+        long pos = this.positions[last];
+        double priority = this.priorities[last];
+
+        int i = 0;
+        int half = last >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < last && this.priorities[child + 1] < this.priorities[child]) {
+                child++;
+            }
+            if (priority <= this.priorities[child]) {
+                break;
+            }
+            this.positions[i] = this.positions[child];
+            this.priorities[i] = this.priorities[child];
+            i = child;
+        }
+        this.positions[i] = pos;
+        this.priorities[i] = priority;
+        return result;
+    }
+}
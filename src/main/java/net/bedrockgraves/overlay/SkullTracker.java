@@ -0,0 +1,180 @@
+package net.bedrockgraves.overlay;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.SkullBlock;
+import net.minecraft.block.entity.BlockEntityType;
+import net.minecraft.block.entity.SkullBlockEntity;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.BlockUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.BundleS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkDeltaUpdateS2CPacket;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers which graves each Bedrock client currently shows as a skeleton skull, and keeps them
+ * that way by patching outgoing chunk and block packets for those positions.
+ *
+ * Skull packets are only sent when a grave turns into a skull for a viewer; afterwards, chunk
+ * (re)sends and block updates at the grave are followed by, or replaced with, the skull state.
+ *
+ * Only touched from the server thread.
+ */
+public final class SkullTracker {
+    private static final Map<UUID, Skulls> VIEWERS = new HashMap<>();
+
+    private SkullTracker() {
+    }
+
+    /**
+     * Records that the viewer should see a skull at the grave.
+     *
+     * @return true if the client did not show it yet and the skull packets have to be sent
+     */
+    static boolean markSkull(ServerPlayerEntity player, int worldIndex, BlockPos pos) {
+        Skulls skulls = VIEWERS.computeIfAbsent(player.getUuid(), k -> new Skulls());
+        if (skulls.worldIndex != worldIndex) {
+            // The client dropped everything from the previous world
+            skulls.positions.clear();
+            skulls.worldIndex = worldIndex;
+        }
+        return skulls.positions.add(pos.asLong());
+    }
+
+    /**
+     * Records that the viewer gets the real grave block back.
+     *
+     * @return true if the client was showing a skull there and the real block has to be sent
+     */
+    static boolean unmarkSkull(ServerPlayerEntity player, int worldIndex, long pos) {
+        Skulls skulls = VIEWERS.get(player.getUuid());
+        return skulls != null && skulls.worldIndex == worldIndex && skulls.positions.remove(pos);
+    }
+
+    static void forget(UUID uuid) {
+        VIEWERS.remove(uuid);
+    }
+
+    static void clearAll() {
+        VIEWERS.clear();
+    }
+
+    /**
+     * Skull state shown for a grave. The rotation follows the grave when it has one and is
+     * otherwise derived from its position, so it never changes between sends.
+     */
+    static BlockState skullState(ServerWorld world, BlockPos pos) {
+        BlockState state = world.getBlockState(pos);
+        int rotation = state.contains(Properties.ROTATION)
+                ? state.get(Properties.ROTATION)
+                : (int) Math.floorMod(HashCommon.mix(pos.asLong()), 16L);
+        return Blocks.SKELETON_SKULL.getDefaultState().with(SkullBlock.ROTATION, rotation);
+    }
+
+    static void addSkullPackets(List<Packet<? super ClientPlayPacketListener>> out, ServerWorld world, BlockPos pos) {
+        BlockState headState = skullState(world, pos);
+        out.add(new BlockUpdateS2CPacket(pos, headState));
+        Packet<ClientPlayPacketListener> update = skullEntityPacket(world, pos, headState);
+        if (update != null) {
+            out.add(update);
+        }
+    }
+
+    private static Packet<ClientPlayPacketListener> skullEntityPacket(ServerWorld world, BlockPos pos, BlockState headState) {
+        SkullBlockEntity skull = new SkullBlockEntity(pos, headState);
+        skull.setWorld(world);
+        return skull.toUpdatePacket();
+    }
+
+    /**
+     * Outbound rewrite stage for Bedrock connections. Returns the packet to send instead,
+     * which is the original packet when nothing at a skull position is affected.
+     */
+    public static Packet<?> rewriteOutgoing(ServerPlayerEntity player, Packet<?> packet) {
+        if (VIEWERS.isEmpty()) {
+            return packet;
+        }
+        if (!(packet instanceof BlockUpdateS2CPacket)
+                && !(packet instanceof BlockEntityUpdateS2CPacket)
+                && !(packet instanceof ChunkDataS2CPacket)
+                && !(packet instanceof ChunkDeltaUpdateS2CPacket)) {
+            return packet;
+        }
+
+        ServerWorld world = (ServerWorld) player.getEntityWorld();
+        if (!world.getServer().isOnThread()) {
+            return packet;
+        }
+        Skulls skulls = VIEWERS.get(player.getUuid());
+        if (skulls == null || skulls.positions.isEmpty() || skulls.worldIndex != OverlayStateStore.worldIndex(world)) {
+            return packet;
+        }
+
+        if (packet instanceof BlockUpdateS2CPacket update) {
+            if (skulls.positions.contains(update.getPos().asLong()) && !update.getState().isOf(Blocks.SKELETON_SKULL)) {
+                return new BlockUpdateS2CPacket(update.getPos(), skullState(world, update.getPos()));
+            }
+            return packet;
+        }
+
+        if (packet instanceof BlockEntityUpdateS2CPacket update) {
+            if (skulls.positions.contains(update.getPos().asLong()) && update.getBlockEntityType() != BlockEntityType.SKULL) {
+                Packet<ClientPlayPacketListener> skull = skullEntityPacket(world, update.getPos(), skullState(world, update.getPos()));
+                return skull != null ? skull : packet;
+            }
+            return packet;
+        }
+
+        List<Packet<? super ClientPlayPacketListener>> patched = null;
+        if (packet instanceof ChunkDataS2CPacket chunk) {
+            LongIterator it = skulls.positions.iterator();
+            while (it.hasNext()) {
+                long pos = it.nextLong();
+                if (BlockPos.unpackLongX(pos) >> 4 == chunk.getChunkX() && BlockPos.unpackLongZ(pos) >> 4 == chunk.getChunkZ()) {
+                    if (patched == null) {
+                        patched = new ArrayList<>();
+                        patched.add(chunk);
+                    }
+                    addSkullPackets(patched, world, BlockPos.fromLong(pos));
+                }
+            }
+        } else if (packet instanceof ChunkDeltaUpdateS2CPacket delta) {
+            List<BlockPos> hits = new ArrayList<>(1);
+            delta.visitUpdates((pos, state) -> {
+                if (skulls.positions.contains(pos.asLong())) {
+                    hits.add(pos.toImmutable());
+                }
+            });
+            if (!hits.isEmpty()) {
+                patched = new ArrayList<>(1 + hits.size() * 2);
+                patched.add(delta);
+                for (BlockPos pos : hits) {
+                    addSkullPackets(patched, world, pos);
+                }
+            }
+        }
+
+        // Bundled so the client applies the chunk and the skull override together
+        return patched != null ? new BundleS2CPacket(patched) : packet;
+    }
+
+    private static final class Skulls {
+        private final LongOpenHashSet positions = new LongOpenHashSet();
+        private int worldIndex;
+    }
+}
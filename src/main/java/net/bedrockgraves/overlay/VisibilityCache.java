@@ -0,0 +1,218 @@
+package net.bedrockgraves.overlay;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+/**
+ * Per-world cache of overlay line-of-sight results, keyed by viewer eye block and grave position.
+ *
+ * An entry is reused until the viewer's eye moves into another block or a block changes inside
+ * the bounding box of the sampled rays. Entries are linked into the chunk columns that box covers,
+ * so a block update only has to look at the entries of its own column.
+ *
+ * Only touched from the server thread.
+ */
+final class VisibilityCache {
+    private static final Map<RegistryKey<World>, VisibilityCache> WORLDS = new HashMap<>();
+    private static final long EVICT_AFTER_TICKS = 200;
+
+    private static long hits;
+    private static long misses;
+
+    private final Map<UUID, Long2ObjectOpenHashMap<Entry>> byViewer = new HashMap<>();
+    private final Long2ObjectOpenHashMap<ObjectArrayList<Entry>> byColumn = new Long2ObjectOpenHashMap<>();
+    private long lastSweepTick;
+
+    private VisibilityCache() {
+    }
+
+    static VisibilityCache get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), k -> new VisibilityCache());
+    }
+
+    /**
+     * Invalidates the entries whose rays pass the changed block and marks those graves dirty
+     * for their viewer, since the change may have opened or blocked the line of sight.
+     */
+    static void onBlockChanged(ServerWorld world, BlockPos pos) {
+        VisibilityCache cache = WORLDS.get(world.getRegistryKey());
+        if (cache != null) {
+            cache.invalidate(OverlayStateStore.worldIndex(world), pos);
+        }
+    }
+
+    static void forgetViewer(UUID viewer) {
+        for (VisibilityCache cache : WORLDS.values()) {
+            cache.removeViewer(viewer);
+        }
+    }
+
+    static void clear(ServerWorld world) {
+        WORLDS.remove(world.getRegistryKey());
+    }
+
+    static void clearAll() {
+        WORLDS.clear();
+    }
+
+    static long hits() {
+        return hits;
+    }
+
+    static long misses() {
+        return misses;
+    }
+
+    /**
+     * Returns the cached line-of-sight result, running {@code raycast} only when no valid entry exists.
+     */
+    boolean hasLineOfSight(ServerPlayerEntity player, BlockPos gravePos, long tick,
+                           BiPredicate<ServerPlayerEntity, BlockPos> raycast) {
+        Vec3d eye = player.getEyePos();
+        int eyeX = MathHelper.floor(eye.x);
+        int eyeY = MathHelper.floor(eye.y);
+        int eyeZ = MathHelper.floor(eye.z);
+        long eyeBlock = BlockPos.asLong(eyeX, eyeY, eyeZ);
+        long graveKey = gravePos.asLong();
+
+        Long2ObjectOpenHashMap<Entry> entries = this.byViewer.computeIfAbsent(player.getUuid(), k -> new Long2ObjectOpenHashMap<>());
+        Entry entry = entries.get(graveKey);
+        if (entry != null && entry.valid && entry.eyeBlock == eyeBlock) {
+            entry.lastUsedTick = tick;
+            hits++;
+            return entry.visible;
+        }
+
+        misses++;
+        boolean visible = raycast.test(player, gravePos);
+        if (entry == null) {
+            entry = new Entry(player.getUuid(), graveKey);
+            entries.put(graveKey, entry);
+        } else {
+            this.unlink(entry);
+        }
+
+        // Sample points sit in the two blocks above the grave, see BedrockOverlayManager#raycastLineOfSight
+        entry.eyeBlock = eyeBlock;
+        entry.visible = visible;
+        entry.valid = true;
+        entry.lastUsedTick = tick;
+        entry.minX = Math.min(eyeX, gravePos.getX());
+        entry.minY = Math.min(eyeY, gravePos.getY());
+        entry.minZ = Math.min(eyeZ, gravePos.getZ());
+        entry.maxX = Math.max(eyeX, gravePos.getX());
+        entry.maxY = Math.max(eyeY, gravePos.getY() + 2);
+        entry.maxZ = Math.max(eyeZ, gravePos.getZ());
+        this.link(entry);
+        return visible;
+    }
+
+    /**
+     * Drops entries that have not been used for a while, checked at most every {@link #EVICT_AFTER_TICKS}.
+     */
+    void sweep(long tick) {
+        if (tick - this.lastSweepTick < EVICT_AFTER_TICKS) {
+            return;
+        }
+        this.lastSweepTick = tick;
+
+        Iterator<Long2ObjectOpenHashMap<Entry>> viewers = this.byViewer.values().iterator();
+        while (viewers.hasNext()) {
+            Long2ObjectOpenHashMap<Entry> entries = viewers.next();
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (tick - entry.lastUsedTick > EVICT_AFTER_TICKS) {
+                    this.unlink(entry);
+                    it.remove();
+                }
+            }
+            if (entries.isEmpty()) {
+                viewers.remove();
+            }
+        }
+    }
+
+    private void invalidate(int worldIndex, BlockPos pos) {
+        ObjectArrayList<Entry> entries = this.byColumn.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (entries == null) {
+            return;
+        }
+        int x = pos.getX();
+        int y = pos.getY();
+        int z = pos.getZ();
+        for (int i = 0, size = entries.size(); i < size; i++) {
+            Entry entry = entries.get(i);
+            if (entry.valid
+                    && x >= entry.minX && x <= entry.maxX
+                    && y >= entry.minY && y <= entry.maxY
+                    && z >= entry.minZ && z <= entry.maxZ) {
+                entry.valid = false;
+                WatchedGraves.markDirty(entry.viewer, worldIndex, entry.grave);
+            }
+        }
+    }
+
+    private void removeViewer(UUID viewer) {
+        Long2ObjectOpenHashMap<Entry> entries = this.byViewer.remove(viewer);
+        if (entries != null) {
+            for (Entry entry : entries.values()) {
+                this.unlink(entry);
+            }
+        }
+    }
+
+    private void link(Entry entry) {
+        for (int cx = entry.minX >> 4; cx <= entry.maxX >> 4; cx++) {
+            for (int cz = entry.minZ >> 4; cz <= entry.maxZ >> 4; cz++) {
+                this.byColumn.computeIfAbsent(ChunkPos.toLong(cx, cz), k -> new ObjectArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        for (int cx = entry.minX >> 4; cx <= entry.maxX >> 4; cx++) {
+            for (int cz = entry.minZ >> 4; cz <= entry.maxZ >> 4; cz++) {
+                long key = ChunkPos.toLong(cx, cz);
+                ObjectArrayList<Entry> entries = this.byColumn.get(key);
+                if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+                    this.byColumn.remove(key);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final UUID viewer;
+        final long grave;
+        long eyeBlock;
+        boolean visible;
+        boolean valid;
+        long lastUsedTick;
+        int minX;
+        int minY;
+        int minZ;
+        int maxX;
+        int maxY;
+        int maxZ;
+
+        Entry(UUID viewer, long grave) {
+            this.viewer = viewer;
+            this.grave = grave;
+        }
+    }
+}
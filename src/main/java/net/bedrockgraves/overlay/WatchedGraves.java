@@ -0,0 +1,159 @@
+package net.bedrockgraves.overlay;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Graves inside the chunks each Bedrock viewer currently has loaded, and which of them need their
+ * visibility checked again.
+ *
+ * Filled from the chunk packets sent to the viewer, so a grave only becomes a candidate once its
+ * chunk reaches the client and stops being one when the chunk is unloaded there. Graves are marked
+ * dirty when they come into view, when the viewer moves into another block, or when a block change
+ * may have opened a line of sight. Graves that are not dirty and have no overlay cost nothing.
+ *
+ * Only touched from the server thread.
+ */
+final class WatchedGraves {
+    private static final Map<UUID, Watch> VIEWERS = new HashMap<>();
+
+    private WatchedGraves() {
+    }
+
+    static Watch get(UUID uuid) {
+        return VIEWERS.get(uuid);
+    }
+
+    /**
+     * Returns the viewer's watch for the world, starting a fresh one when the viewer was in another world.
+     */
+    static Watch getOrCreate(UUID uuid, int worldIndex) {
+        Watch watch = VIEWERS.computeIfAbsent(uuid, k -> new Watch());
+        if (watch.worldIndex != worldIndex) {
+            watch.clear();
+            watch.worldIndex = worldIndex;
+        }
+        return watch;
+    }
+
+    static void markDirty(UUID uuid, int worldIndex, long pos) {
+        Watch watch = VIEWERS.get(uuid);
+        if (watch != null && watch.worldIndex == worldIndex) {
+            watch.markDirty(pos);
+        }
+    }
+
+    static void markAllDirty() {
+        for (Watch watch : VIEWERS.values()) {
+            watch.markAll();
+        }
+    }
+
+    static void forget(UUID uuid) {
+        VIEWERS.remove(uuid);
+    }
+
+    static void clearAll() {
+        VIEWERS.clear();
+    }
+
+    static final class Watch {
+        private final LongOpenHashSet graves = new LongOpenHashSet();
+        private final LongLinkedOpenHashSet dirty = new LongLinkedOpenHashSet();
+        private int worldIndex;
+        private long lastBlock = Long.MIN_VALUE;
+
+        private Watch() {
+        }
+
+        void add(long pos) {
+            if (this.graves.add(pos)) {
+                this.dirty.add(pos);
+            }
+        }
+
+        void remove(long pos) {
+            this.graves.remove(pos);
+            this.dirty.remove(pos);
+        }
+
+        void removeChunk(int chunkX, int chunkZ) {
+            LongIterator it = this.graves.iterator();
+            while (it.hasNext()) {
+                long pos = it.nextLong();
+                if (BlockPos.unpackLongX(pos) >> 4 == chunkX && BlockPos.unpackLongZ(pos) >> 4 == chunkZ) {
+                    it.remove();
+                    this.dirty.remove(pos);
+                }
+            }
+        }
+
+        /**
+         * Records the viewer's current block.
+         *
+         * @return true if it changed since the last call
+         */
+        boolean moveTo(long block) {
+            if (this.lastBlock == block) {
+                return false;
+            }
+            this.lastBlock = block;
+            return true;
+        }
+
+        /**
+         * Marks every watched grave within {@code radius} blocks of (x, y, z) dirty.
+         */
+        void markNear(double x, double y, double z, double radius) {
+            double radiusSq = radius * radius;
+            LongIterator it = this.graves.iterator();
+            while (it.hasNext()) {
+                long pos = it.nextLong();
+                double dx = BlockPos.unpackLongX(pos) + 0.5 - x;
+                double dy = BlockPos.unpackLongY(pos) + 0.5 - y;
+                double dz = BlockPos.unpackLongZ(pos) + 0.5 - z;
+                if (dx * dx + dy * dy + dz * dz <= radiusSq) {
+                    this.dirty.add(pos);
+                }
+            }
+        }
+
+        LongIterator dirty() {
+            return this.dirty.iterator();
+        }
+
+        boolean isDirty(long pos) {
+            return this.dirty.contains(pos);
+        }
+
+        void clean(long pos) {
+            this.dirty.remove(pos);
+        }
+
+        void markDirty(long pos) {
+            if (this.graves.contains(pos)) {
+                this.dirty.add(pos);
+            }
+        }
+
+        void markAll() {
+            this.dirty.addAll(this.graves);
+        }
+
+        int worldIndex() {
+            return this.worldIndex;
+        }
+
+        private void clear() {
+            this.graves.clear();
+            this.dirty.clear();
+            this.lastBlock = Long.MIN_VALUE;
+        }
+    }
+}
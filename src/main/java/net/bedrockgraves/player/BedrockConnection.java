@@ -0,0 +1,15 @@
+package net.bedrockgraves.player;
+
+/**
+ * Implemented on every network handler through a mixin so the Bedrock status of
+ * a connection can be read with a single field access.
+ */
+public interface BedrockConnection {
+    byte STATE_UNKNOWN = 0;
+    byte STATE_JAVA = 1;
+    byte STATE_BEDROCK = 2;
+
+    byte bedrockgraves$getBedrockState();
+
+    void bedrockgraves$setBedrockState(byte state);
+}
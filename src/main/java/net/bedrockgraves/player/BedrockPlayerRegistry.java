@@ -0,0 +1,105 @@
+package net.bedrockgraves.player;
+
+import net.bedrockgraves.BedrockGravesAddon;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.network.ServerCommonNetworkHandler;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single source of truth for whether a connection belongs to a Bedrock (Floodgate) player.
+ *
+ * The status is settled once per connection, at JOIN or on the first packet sent before it,
+ * and stored as a flag on the network handler. Hot paths only ever read that flag.
+ */
+public final class BedrockPlayerRegistry {
+    // Bedrock players currently online, for lookups that only have a UUID
+    private static final Set<UUID> BEDROCK_PLAYERS = ConcurrentHashMap.newKeySet();
+
+    private BedrockPlayerRegistry() {
+    }
+
+    public static void register() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> isBedrock(handler));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            BEDROCK_PLAYERS.remove(handler.player.getUuid());
+            ((BedrockConnection) handler).bedrockgraves$setBedrockState(BedrockConnection.STATE_JAVA);
+        });
+    }
+
+    public static boolean isBedrock(ServerPlayerEntity player) {
+        return player.networkHandler != null && isBedrock(player.networkHandler);
+    }
+
+    public static boolean isBedrock(ServerCommonNetworkHandler handler) {
+        byte state = ((BedrockConnection) handler).bedrockgraves$getBedrockState();
+        if (state == BedrockConnection.STATE_UNKNOWN) {
+            state = resolve(handler);
+        }
+        return state == BedrockConnection.STATE_BEDROCK;
+    }
+
+    public static boolean isBedrock(UUID uuid) {
+        return BEDROCK_PLAYERS.contains(uuid);
+    }
+
+    public static int onlineCount() {
+        return BEDROCK_PLAYERS.size();
+    }
+
+    private static byte resolve(ServerCommonNetworkHandler handler) {
+        if (!(handler instanceof ServerPlayNetworkHandler playHandler) || playHandler.player == null) {
+            // Configuration phase - nothing to translate yet, decide once play starts
+            return BedrockConnection.STATE_JAVA;
+        }
+
+        UUID uuid = playHandler.player.getUuid();
+        byte state = Floodgate.isFloodgatePlayer(uuid) ? BedrockConnection.STATE_BEDROCK : BedrockConnection.STATE_JAVA;
+        ((BedrockConnection) handler).bedrockgraves$setBedrockState(state);
+        if (state == BedrockConnection.STATE_BEDROCK) {
+            BEDROCK_PLAYERS.add(uuid);
+        }
+        return state;
+    }
+
+    /**
+     * Floodgate API handle, resolved once on first use (class initialization is thread-safe).
+     */
+    private static final class Floodgate {
+        private static final Object API;
+        private static final Method IS_FLOODGATE_PLAYER;
+
+        static {
+            Object api = null;
+            Method method = null;
+            try {
+                Class<?> apiClass = Class.forName("org.geysermc.floodgate.api.FloodgateApi");
+                api = apiClass.getMethod("getInstance").invoke(null);
+                method = apiClass.getMethod("isFloodgatePlayer", UUID.class);
+                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Floodgate detected, enabling Bedrock overlays");
+            } catch (Exception e) {
+                BedrockGravesAddon.LOGGER.info("[UniversalGraves-Geyser] Floodgate not detected, Bedrock overlays disabled ({})",
+                        e.toString());
+            }
+            API = api;
+            IS_FLOODGATE_PLAYER = method;
+        }
+
+        private static boolean isFloodgatePlayer(UUID uuid) {
+            if (API == null || IS_FLOODGATE_PLAYER == null) {
+                return false;
+            }
+            try {
+                return (boolean) IS_FLOODGATE_PLAYER.invoke(API, uuid);
+            } catch (Exception e) {
+                BedrockGravesAddon.LOGGER.debug("[UniversalGraves-Geyser] Failed to query Floodgate: {}", e.toString());
+                return false;
+            }
+        }
+    }
+}
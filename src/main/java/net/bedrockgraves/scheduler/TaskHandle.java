@@ -0,0 +1,13 @@
+package net.bedrockgraves.scheduler;
+
+/**
+ * Handle to a task submitted to the {@link TickScheduler}.
+ */
+public interface TaskHandle {
+    /**
+     * Prevents the task from running if it has not run yet. Safe to call from any thread.
+     */
+    void cancel();
+
+    boolean isCancelled();
+}
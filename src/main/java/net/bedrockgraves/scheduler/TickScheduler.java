@@ -0,0 +1,210 @@
+package net.bedrockgraves.scheduler;
+
+import net.bedrockgraves.BedrockGravesAddon;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel driven by the server tick.
+ *
+ * Tasks can be submitted from any thread; they go through a lock-free inbox and are placed into
+ * the wheel slot of their due tick when the scheduler next runs. Each tick only visits its own slot,
+ * so delayed work costs O(1) until it is due and an idle tick allocates nothing. When the per-tick
+ * time budget runs out, the remaining due tasks are carried over to the next tick.
+ *
+ * Delays count from the current tick, the one whose tasks run next at its end. A task submitted
+ * during a world tick with a delay of 1 runs at the end of the following tick, and so does one
+ * submitted with that delay by a task running at the end of this tick.
+ */
+public final class TickScheduler {
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final Task[] heads = new Task[WHEEL_SIZE];
+    private final Task[] tails = new Task[WHEEL_SIZE];
+    private final Queue<Task> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inboxSize = new AtomicInteger();
+    private final long budgetNanos;
+
+    // Tick whose tasks run next, written by the server thread only
+    private volatile long tick;
+
+    // Server thread only
+    private int scheduled;
+    private long executed;
+    private long deferred;
+    private long cancelled;
+    private long maxLagTicks;
+    private long lastRunNanos;
+
+    /**
+     * @param budgetNanos time after which the remaining due tasks of a tick are carried over,
+     *                    at least one task always runs per tick
+     */
+    public TickScheduler(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Runs the task at the end of the current tick. Called from a task that is running at the end of
+     * this tick, the task runs at the end of the next one, as this tick's slot has already been visited.
+     */
+    public TaskHandle execute(Runnable action) {
+        return this.schedule(0, action);
+    }
+
+    /**
+     * Runs the task at the end of the tick {@code delayTicks} ticks after the current one,
+     * see the class description.
+     */
+    public TaskHandle schedule(int delayTicks, Runnable action) {
+        Task task = new Task(action, this.tick + Math.max(0, delayTicks));
+        this.inboxSize.incrementAndGet();
+        this.inbox.add(task);
+        return task;
+    }
+
+    /**
+     * Runs every task due this tick. Must be called once per server tick from the server thread.
+     */
+    public void tick() {
+        long now = this.tick;
+        this.drainInbox(now);
+
+        int slot = (int) (now & WHEEL_MASK);
+        Task task = this.heads[slot];
+        if (task == null) {
+            this.lastRunNanos = 0;
+            this.tick = now + 1;
+            return;
+        }
+        this.heads[slot] = null;
+        this.tails[slot] = null;
+
+        long start = System.nanoTime();
+        int ran = 0;
+        while (task != null) {
+            Task next = task.next;
+            task.next = null;
+
+            if (task.cancelled) {
+                this.scheduled--;
+                this.cancelled++;
+            } else if (task.dueTick > now) {
+                // Due in a later round of the wheel
+                this.append(slot, task);
+            } else if (ran > 0 && System.nanoTime() - start > this.budgetNanos) {
+                this.deferred++;
+                this.append((int) ((now + 1) & WHEEL_MASK), task);
+            } else {
+                this.scheduled--;
+                ran++;
+                this.maxLagTicks = Math.max(this.maxLagTicks, now - task.dueTick);
+                try {
+                    task.action.run();
+                } catch (Throwable ex) {
+                    BedrockGravesAddon.LOGGER.error("Error executing delayed task", ex);
+                }
+            }
+            task = next;
+        }
+        this.executed += ran;
+        this.lastRunNanos = System.nanoTime() - start;
+        // Tasks submitted while this tick's tasks ran counted their delay from it
+        this.tick = now + 1;
+    }
+
+    /**
+     * Drops every pending task, used when the server stops.
+     */
+    public void clear() {
+        this.inbox.clear();
+        this.inboxSize.set(0);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.heads[i] = null;
+            this.tails[i] = null;
+        }
+        this.scheduled = 0;
+    }
+
+    /**
+     * Tasks waiting in the wheel or the inbox.
+     */
+    public int pending() {
+        return this.scheduled + this.inboxSize.get();
+    }
+
+    public long executed() {
+        return this.executed;
+    }
+
+    /**
+     * Times a due task was pushed to the next tick because the budget ran out.
+     */
+    public long deferred() {
+        return this.deferred;
+    }
+
+    public long cancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Largest number of ticks a task has run after its due tick.
+     */
+    public long maxLagTicks() {
+        return this.maxLagTicks;
+    }
+
+    public long lastRunNanos() {
+        return this.lastRunNanos;
+    }
+
+    private void drainInbox(long now) {
+        Task task;
+        while ((task = this.inbox.poll()) != null) {
+            this.inboxSize.decrementAndGet();
+            if (task.cancelled) {
+                this.cancelled++;
+                continue;
+            }
+            // Submitted while the previous tick's tasks ran, it can be due already; this slot is the earliest left
+            task.dueTick = Math.max(task.dueTick, now);
+            this.scheduled++;
+            this.append((int) (task.dueTick & WHEEL_MASK), task);
+        }
+    }
+
+    private void append(int slot, Task task) {
+        if (this.tails[slot] == null) {
+            this.heads[slot] = task;
+        } else {
+            this.tails[slot].next = task;
+        }
+        this.tails[slot] = task;
+    }
+
+    private static final class Task implements TaskHandle {
+        private final Runnable action;
+        private long dueTick;
+        private Task next;
+        private volatile boolean cancelled;
+
+        private Task(Runnable action, long dueTick) {
+            this.action = action;
+            this.dueTick = dueTick;
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+    }
+}